@@ -0,0 +1,201 @@
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact, struct-of-arrays activity network for CPMCalculator.
+// Activity i is a row across parallel primitive arrays (duration, ES, EF, LS, LF, slack) and its
+// precedence edges are stored CSR-style: predecessors of i are pred[predStart[i] .. predStart[i+1]),
+// successors are succ[succStart[i] .. succStart[i+1]).
+// Route activities are identified by numbers (kind, vehicle, from, to) instead of a String;
+// name(i) builds the familiar "V1_Travel_0_3" style name only when it is printed.
+class ActivityGraph {
+    static final byte START = 0, END = 1, TRAVEL = 2, SERVICE = 3, NAMED = 4;
+
+    final int size;
+    final double[] duration;
+    final double[] earlyStart, earlyFinish, lateStart, lateFinish, slack;
+    final int[] predStart, pred;
+    final int[] succStart, succ;
+
+    private final byte[] kind;
+    private final int[] vehicle, from, to;
+    private final String[] names; // Only for NAMED activities (graphs converted from Activity objects)
+
+    private ActivityGraph(Builder b) {
+        this.size = b.size;
+        this.duration = Arrays.copyOf(b.duration, size);
+        this.kind = Arrays.copyOf(b.kind, size);
+        this.vehicle = Arrays.copyOf(b.vehicle, size);
+        this.from = Arrays.copyOf(b.from, size);
+        this.to = Arrays.copyOf(b.to, size);
+        this.names = b.names == null ? null : Arrays.copyOf(b.names, size);
+        this.earlyStart = new double[size];
+        this.earlyFinish = new double[size];
+        this.lateStart = new double[size];
+        this.lateFinish = new double[size];
+        this.slack = new double[size];
+
+        // Counting sort of the edge list into both CSR layouts
+        this.predStart = new int[size + 1];
+        this.succStart = new int[size + 1];
+        for (int e = 0; e < b.edgeCount; e++) {
+            predStart[b.edgeTo[e] + 1]++;
+            succStart[b.edgeFrom[e] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            predStart[i + 1] += predStart[i];
+            succStart[i + 1] += succStart[i];
+        }
+        this.pred = new int[b.edgeCount];
+        this.succ = new int[b.edgeCount];
+        int[] predFill = new int[size], succFill = new int[size];
+        for (int e = 0; e < b.edgeCount; e++) {
+            int f = b.edgeFrom[e], t = b.edgeTo[e];
+            pred[predStart[t] + predFill[t]++] = f;
+            succ[succStart[f] + succFill[f]++] = t;
+        }
+    }
+
+    // Kahn's algorithm: every activity comes after all of its predecessors
+    public int[] topologicalOrder() {
+        int[] inDegree = new int[size];
+        for (int i = 0; i < size; i++) {
+            inDegree[i] = predStart[i + 1] - predStart[i];
+        }
+        int[] order = new int[size];
+        int head = 0, tail = 0;
+        for (int i = 0; i < size; i++) {
+            if (inDegree[i] == 0) order[tail++] = i;
+        }
+        while (head < tail) {
+            int i = order[head++];
+            for (int s = succStart[i]; s < succStart[i + 1]; s++) {
+                if (--inDegree[succ[s]] == 0) order[tail++] = succ[s];
+            }
+        }
+        if (tail < size) {
+            for (int i = 0; i < size; i++) {
+                if (inDegree[i] > 0) {
+                    throw new IllegalStateException("Dependency cycle detected involving activity " + name(i));
+                }
+            }
+        }
+        return order;
+    }
+
+    public String name(int i) {
+        switch (kind[i]) {
+            case START: return "Project_Start";
+            case END: return "Project_End";
+            case TRAVEL: return "V" + (vehicle[i] + 1) + "_Travel_" + from[i] + "_" + to[i];
+            case SERVICE: return "V" + (vehicle[i] + 1) + "_Service_" + to[i];
+            default: return names[i];
+        }
+    }
+
+    public byte kind(int i) { return kind[i]; }
+    public int vehicle(int i) { return vehicle[i]; }
+    public int from(int i) { return from[i]; }
+    public int to(int i) { return to[i]; }
+
+    // Same network as analyzeCPM(): Project_Start -> per vehicle (travel, service)* -> Project_End
+    // Travel durations are taken at each leg's departure time (TravelTimeMatrix.legTimes)
+    public static ActivityGraph fromRoutes(List<List<Integer>> vehicleRoutes, TravelTimeMatrix travelTimes,
+                                           List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex) {
+        Builder b = new Builder();
+        int projectStart = b.add(START, -1, -1, -1, 0);
+        int[] vehicleLast = new int[vehicleRoutes.size()];
+        for (int v = 0; v < vehicleRoutes.size(); v++) {
+            List<Integer> route = vehicleRoutes.get(v);
+            double[] legs = TravelTimeMatrix.legTimes(travelTimes, route, geoPoints, depotIndex);
+            int last = projectStart; // All vehicles start after "Project Start"
+            for (int j = 0; j < route.size() - 1; j++) {
+                int current = route.get(j), next = route.get(j + 1);
+                int travel = b.add(TRAVEL, v, current, next, legs[j]);
+                b.addPrecedence(last, travel);
+                last = travel;
+                double service = geoPoints.get(next).serviceDuration;
+                if (next != depotIndex && service > 0) {
+                    int serviceId = b.add(SERVICE, v, -1, next, service);
+                    b.addPrecedence(last, serviceId);
+                    last = serviceId;
+                }
+            }
+            vehicleLast[v] = last;
+        }
+        int projectEnd = b.add(END, -1, -1, -1, 0);
+        for (int last : vehicleLast) {
+            b.addPrecedence(last, projectEnd);
+        }
+        return b.build();
+    }
+
+    // Converts Activity objects (in list order) to a graph; activity i of the list becomes row i
+    public static ActivityGraph fromActivities(List<Activity> activities) {
+        Builder b = new Builder();
+        Map<Activity, Integer> index = new IdentityHashMap<>(activities.size() * 2);
+        for (Activity activity : activities) {
+            index.put(activity, b.addNamed(activity.getName(), activity.getDuration()));
+        }
+        for (int i = 0; i < activities.size(); i++) {
+            for (Activity predecessor : activities.get(i).getPredecessors()) {
+                Integer predId = index.get(predecessor);
+                if (predId == null) {
+                    throw new IllegalArgumentException("Predecessor " + predecessor.getName() + " of "
+                            + activities.get(i).getName() + " is not in the activity list");
+                }
+                b.addPrecedence(predId, i);
+            }
+        }
+        return b.build();
+    }
+
+    // Growable primitive buffers for building a graph
+    static class Builder {
+        private int size, edgeCount;
+        private double[] duration = new double[64];
+        private byte[] kind = new byte[64];
+        private int[] vehicle = new int[64], from = new int[64], to = new int[64];
+        private String[] names;
+        private int[] edgeFrom = new int[64], edgeTo = new int[64];
+
+        public int add(byte activityKind, int vehicleIndex, int fromPoint, int toPoint, double activityDuration) {
+            if (size == duration.length) {
+                int capacity = size * 2;
+                duration = Arrays.copyOf(duration, capacity);
+                kind = Arrays.copyOf(kind, capacity);
+                vehicle = Arrays.copyOf(vehicle, capacity);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                if (names != null) names = Arrays.copyOf(names, capacity);
+            }
+            duration[size] = activityDuration;
+            kind[size] = activityKind;
+            vehicle[size] = vehicleIndex;
+            from[size] = fromPoint;
+            to[size] = toPoint;
+            return size++;
+        }
+
+        public int addNamed(String name, double activityDuration) {
+            int id = add(NAMED, -1, -1, -1, activityDuration);
+            if (names == null) names = new String[duration.length];
+            names[id] = name;
+            return id;
+        }
+
+        public void addPrecedence(int predecessor, int successor) {
+            if (edgeCount == edgeFrom.length) {
+                edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+                edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+            }
+            edgeFrom[edgeCount] = predecessor;
+            edgeTo[edgeCount++] = successor;
+        }
+
+        public ActivityGraph build() {
+            return new ActivityGraph(this);
+        }
+    }
+}
\ No newline at end of file
@@ -1,145 +1,198 @@
-import java.util.*;
-
-class CPMCalculator {
-    private final List<Activity> activities;
-    private double projectDuration;
-    private final List<Activity> criticalPath;
-
-    public CPMCalculator(List<Activity> activities) {
-        // Create a copy and sort for deterministic processing, though topological sort is more robust for CPM
-        this.activities = new ArrayList<>(activities);
-        // A simple sort by name might not be sufficient for complex predecessor chains.
-        // For robustness, consider implementing a topological sort or ensuring activities are added in an order that respects dependencies.
-        // For this specific case (VRP activities), the naming convention and sequential nature often work with a simple sort.
-        this.activities.sort(Comparator.comparing(Activity::getName));
-        this.criticalPath = new ArrayList<>();
-    }
-
-    public void calculateCPM() {
-        // --- Forward Pass: Calculate Early Start (ES) and Early Finish (EF) ---
-        // We need to ensure activities are processed only when all their predecessors have their ES/EF calculated.
-        // A simple iterative loop over all activities, repeated until no changes occur, can work for many cases.
-        // For very complex dependency graphs, a topological sort (if no cycles) or Kahn's algorithm is more robust.
-        boolean changed;
-        do {
-            changed = false;
-            for (Activity activity : activities) {
-                double newEarlyStart = 0;
-                if (!activity.getPredecessors().isEmpty()) {
-                    // Find the maximum Early Finish of all predecessors
-                    double maxPredecessorEF = 0; // This variable is now local to its scope
-                    boolean allPredecessorsCalculated = true; // Check if all predecessors have valid EF
-                    for (Activity pred : activity.getPredecessors()) {
-                        if (pred.getEarlyFinish() == 0 && pred.getDuration() > 0 && pred.getName().startsWith("V")) { // Crude check if not yet calculated and not Project_Start
-                             allPredecessorsCalculated = false;
-                             break;
-                        }
-                        maxPredecessorEF = Math.max(maxPredecessorEF, pred.getEarlyFinish());
-                    }
-                    if (allPredecessorsCalculated) {
-                        newEarlyStart = maxPredecessorEF;
-                    } else {
-                        // If predecessors not calculated, skip this activity for now, it will be processed in a later iteration
-                        continue;
-                    }
-                }
-
-                if (activity.getEarlyStart() != newEarlyStart) {
-                    activity.setEarlyStart(newEarlyStart);
-                    activity.setEarlyFinish(activity.getEarlyStart() + activity.getDuration());
-                    changed = true;
-                }
-            }
-        } while (changed);
-
-
-        // Determine Project Duration (Max Early Finish of all activities)
-        projectDuration = 0;
-        for (Activity activity : activities) {
-            projectDuration = Math.max(projectDuration, activity.getEarlyFinish());
-        }
-
-
-        // --- Backward Pass: Calculate Late Start (LS) and Late Finish (LF) ---
-        // Initialize Late Finish for activities with no successors to project duration
-        for (Activity activity : activities) {
-            // Assume initial LF is project duration, then narrow it down
-            activity.setLateFinish(projectDuration);
-            activity.setLateStart(projectDuration - activity.getDuration()); // Initial LS
-        }
-
-        // Iterate backward to refine LS/LF based on successors
-        do {
-            changed = false;
-            for (int i = activities.size() - 1; i >= 0; i--) { // Iterate backwards
-                Activity activity = activities.get(i);
-                
-                double minSuccessorLS = projectDuration; // Default if no successors
-
-                // Find activities that have 'activity' as a predecessor (its successors)
-                // and calculate their Late Start
-                for (Activity successor : activities) {
-                    if (successor.getPredecessors().contains(activity)) {
-                        minSuccessorLS = Math.min(minSuccessorLS, successor.getLateStart());
-                    }
-                }
-
-                double newLateFinish = minSuccessorLS;
-                if (Math.abs(activity.getLateFinish() - newLateFinish) > 0.001) { // Compare with tolerance
-                    activity.setLateFinish(newLateFinish);
-                    activity.setLateStart(activity.getLateFinish() - activity.getDuration());
-                    changed = true;
-                }
-            }
-        } while (changed);
-
-
-        // --- Calculate Slack and Identify Critical Path ---
-        criticalPath.clear();
-        for (Activity activity : activities) {
-            activity.setSlack(activity.getLateStart() - activity.getEarlyStart());
-            // Activities on the critical path have zero slack (within a small tolerance for doubles)
-            if (Math.abs(activity.getSlack()) < 0.001) {
-                criticalPath.add(activity);
-            }
-        }
-        // Sort the critical path activities by their Early Start time for clear display
-        criticalPath.sort(Comparator.comparingDouble(Activity::getEarlyStart));
-    }
-
-    public double getProjectDuration() {
-        return projectDuration;
-    }
-
-    public List<Activity> getCriticalPath() {
-        return criticalPath;
-    }
-
-    public void printResults() {
-        System.out.println("\n--- Hasil Analisis CPM ---");
-        System.out.println("Durasi Proyek Keseluruhan: " + String.format("%.2f", projectDuration) + " menit");
-        System.out.println("\nDaftar Aktivitas:");
-        System.out.println(String.format("%-40s | %7s | %7s | %7s | %7s | %7s | %7s",
-                                         "Nama Aktivitas", "Durasi", "ES", "EF", "LS", "LF", "Slack"));
-        System.out.println("------------------------------------------+---------+---------+---------+---------+---------+---------");
-        // Sort activities by ES for better readability in the output
-        activities.sort(Comparator.comparingDouble(Activity::getEarlyStart));
-        for (Activity activity : activities) {
-            System.out.println(activity);
-        }
-        System.out.println("\nJalur Kritis (Critical Path):");
-        if (criticalPath.isEmpty()) {
-            System.out.println("Tidak ada jalur kritis ditemukan (mungkin proyek kosong, durasi nol, atau ada masalah perhitungan).");
-        } else {
-            StringBuilder cpString = new StringBuilder();
-            for (int i = 0; i < criticalPath.size(); i++) {
-                cpString.append(criticalPath.get(i).getName());
-                if (i < criticalPath.size() - 1) {
-                    cpString.append(" -> ");
-                }
-            }
-            System.out.println(cpString.toString());
-        }
-        System.out.println("---------------------------");
-    }
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+class CPMCalculator {
+    private final ActivityGraph graph;
+    private final List<Activity> activities; // null when constructed directly from an ActivityGraph
+    private double projectDuration;
+    private int[] criticalPathIds = new int[0];
+    private List<Activity> criticalPath;
+    private long edgeRelaxations;
+
+    public CPMCalculator(List<Activity> activities) {
+        // Create a copy sorted by name; this only fixes the tie order of the printed tables,
+        // the passes below run in topological order.
+        this.activities = new ArrayList<>(activities);
+        this.activities.sort(Comparator.comparing(Activity::getName));
+        this.graph = ActivityGraph.fromActivities(this.activities);
+    }
+
+    public CPMCalculator(ActivityGraph graph) {
+        this.activities = null;
+        this.graph = graph;
+    }
+
+    public void calculateCPM() {
+        ActivityGraph g = graph;
+        int n = g.size;
+
+        int[] order = g.topologicalOrder();
+
+        // --- Forward Pass: Calculate Early Start (ES) and Early Finish (EF) ---
+        projectDuration = 0;
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            double earlyStart = 0;
+            for (int p = g.predStart[i]; p < g.predStart[i + 1]; p++) {
+                earlyStart = Math.max(earlyStart, g.earlyFinish[g.pred[p]]);
+            }
+            g.earlyStart[i] = earlyStart;
+            g.earlyFinish[i] = earlyStart + g.duration[i];
+            // Project Duration is the max Early Finish of all activities
+            projectDuration = Math.max(projectDuration, g.earlyFinish[i]);
+        }
+
+        // --- Backward Pass: Calculate Late Start (LS) and Late Finish (LF) ---
+        // Activities without successors finish at the project duration
+        for (int k = n - 1; k >= 0; k--) {
+            int i = order[k];
+            double lateFinish = projectDuration;
+            for (int s = g.succStart[i]; s < g.succStart[i + 1]; s++) {
+                lateFinish = Math.min(lateFinish, g.lateStart[g.succ[s]]);
+            }
+            g.lateFinish[i] = lateFinish;
+            g.lateStart[i] = lateFinish - g.duration[i];
+        }
+
+        // Kahn's order makes each pass a single sweep (no fixed-point iteration): every edge is relaxed once per pass
+        edgeRelaxations = 2L * g.pred.length;
+
+        // --- Calculate Slack and Identify Critical Path ---
+        int criticalCount = 0;
+        int[] critical = new int[n];
+        for (int i = 0; i < n; i++) {
+            g.slack[i] = g.lateStart[i] - g.earlyStart[i];
+            // Activities on the critical path have zero slack (within a small tolerance for doubles)
+            if (Math.abs(g.slack[i]) < 0.001) {
+                critical[criticalCount++] = i;
+            }
+        }
+        // Sort the critical path activities by their Early Start time for clear display
+        criticalPathIds = sortedByEarlyStart(critical, criticalCount);
+        criticalPath = null;
+
+        if (activities != null) {
+            for (int i = 0; i < n; i++) {
+                Activity activity = activities.get(i);
+                activity.setEarlyStart(g.earlyStart[i]);
+                activity.setEarlyFinish(g.earlyFinish[i]);
+                activity.setLateStart(g.lateStart[i]);
+                activity.setLateFinish(g.lateFinish[i]);
+                activity.setSlack(g.slack[i]);
+            }
+        }
+    }
+
+    public double getProjectDuration() {
+        return projectDuration;
+    }
+
+    // Precedence edges relaxed by the last calculateCPM() (forward plus backward pass)
+    public long getEdgeRelaxations() {
+        return edgeRelaxations;
+    }
+
+    public ActivityGraph getGraph() {
+        return graph;
+    }
+
+    // Activity ids (rows of getGraph()) on the critical path, by Early Start
+    public int[] getCriticalPathIds() {
+        return criticalPathIds;
+    }
+
+    // Critical path as Activity objects; for graph-based calculators these are created on first use
+    public List<Activity> getCriticalPath() {
+        if (criticalPath == null) {
+            criticalPath = new ArrayList<>(criticalPathIds.length);
+            for (int i : criticalPathIds) {
+                criticalPath.add(activities != null ? activities.get(i) : toActivity(i));
+            }
+        }
+        return criticalPath;
+    }
+
+    private Activity toActivity(int i) {
+        Activity activity = new Activity(graph.name(i), graph.duration[i]);
+        activity.setEarlyStart(graph.earlyStart[i]);
+        activity.setEarlyFinish(graph.earlyFinish[i]);
+        activity.setLateStart(graph.lateStart[i]);
+        activity.setLateFinish(graph.lateFinish[i]);
+        activity.setSlack(graph.slack[i]);
+        return activity;
+    }
+
+    // Stable sort of ids by Early Start (ties keep id order). Primitive: each id gets the rank of its
+    // Early Start among the sorted values, and (rank, id) pairs packed into longs are sorted.
+    private int[] sortedByEarlyStart(int[] ids, int count) {
+        double[] values = new double[count];
+        for (int k = 0; k < count; k++) {
+            values[k] = graph.earlyStart[ids[k]];
+        }
+        Arrays.sort(values);
+        long[] keys = new long[count];
+        for (int k = 0; k < count; k++) {
+            long rank = firstIndexOf(values, graph.earlyStart[ids[k]]);
+            keys[k] = rank << 32 | ids[k];
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[count];
+        for (int k = 0; k < count; k++) {
+            sorted[k] = (int) keys[k];
+        }
+        return sorted;
+    }
+
+    // Index of the first occurrence of value in a sorted array (same ordering as Double.compare)
+    private static int firstIndexOf(double[] sorted, double value) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(sorted[mid], value) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Same table as before, streamed through ExportWriter instead of String.format per line; the
+    // printing order is a sorted copy of the ids, the calculator itself is not changed
+    public void printResults() {
+        try (ExportWriter out = ExportWriter.console()) {
+            out.newline().text("--- Hasil Analisis CPM ---").newline();
+            out.text("Durasi Proyek Keseluruhan: ").fixed(projectDuration, 2).text(" menit").newline();
+            out.newline().text("Daftar Aktivitas:").newline();
+            out.padRight("Nama Aktivitas", 40).text(" |  Durasi |      ES |      EF |      LS |      LF |   Slack").newline();
+            out.text("------------------------------------------+---------+---------+---------+---------+---------+---------").newline();
+            // Print activities by ES for better readability in the output
+            int[] all = new int[graph.size];
+            for (int i = 0; i < graph.size; i++) {
+                all[i] = i;
+            }
+            for (int i : sortedByEarlyStart(all, all.length)) {
+                out.padRight(graph.name(i), 40);
+                out.text(" | Dur: ").fixed(graph.duration[i], 2, 7);
+                out.text(" | ES: ").fixed(graph.earlyStart[i], 2, 7);
+                out.text(" | EF: ").fixed(graph.earlyFinish[i], 2, 7);
+                out.text(" | LS: ").fixed(graph.lateStart[i], 2, 7);
+                out.text(" | LF: ").fixed(graph.lateFinish[i], 2, 7);
+                out.text(" | Slack: ").fixed(graph.slack[i], 2, 7).newline();
+            }
+            out.newline().text("Jalur Kritis (Critical Path):").newline();
+            if (criticalPathIds.length == 0) {
+                out.text("Tidak ada jalur kritis ditemukan (mungkin proyek kosong, durasi nol, atau ada masalah perhitungan).").newline();
+            } else {
+                for (int i = 0; i < criticalPathIds.length; i++) {
+                    out.text(graph.name(criticalPathIds[i]));
+                    if (i < criticalPathIds.length - 1) {
+                        out.text(" -> ");
+                    }
+                }
+                out.newline();
+            }
+            out.text("---------------------------").newline();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
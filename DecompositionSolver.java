@@ -0,0 +1,442 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// Cluster-first, route-second solver for very large instances.
+// 1. Partition: customers are split into regions around the depot, by angular sweep (equal-count arcs)
+//    or k-means on the projected lat/lon (seeded from the sweep arcs). Regions are ordered by angle, so
+//    region r borders r-1 and r+1 (cyclically).
+// 2. Route: every region gets vehicles in proportion to its customers (at least one) and is solved by
+//    its own RouteSolver on a region view of the travel times; regions run in parallel. Given a list of
+//    vehicles, each region gets the next ones in the list, so routes come back in vehicle order.
+// 3. Boundary exchange: LocalSearchSolver.improve() on the routes of each pair of neighbouring regions,
+//    so customers near a border can move to the other side. Pairs that share no region run in parallel
+//    (even pairs, odd pairs, then the wrap-around pair when the region count is odd).
+// Region views keep the store's NeighborLists (filtered to the region), so the region solvers stay
+// granular on sparse instances. The boundary exchange is always granular (grid neighbours on dense
+// instances): it only has to move customers across a border to a nearby route.
+// Not thread-safe: use one instance per concurrent solve.
+class DecompositionSolver implements RouteSolver {
+
+    enum Partition { SWEEP, KMEANS }
+
+    private static final int KMEANS_ITERATIONS = 10;
+
+    private final Supplier<RouteSolver> regionSolver;
+    private final Partition partition;
+    private final int regionCount; // 0 = one region per available processor
+    private final AtomicLong movesEvaluated = new AtomicLong();
+
+    public DecompositionSolver() {
+        this(LocalSearchSolver::new, Partition.SWEEP, 0);
+    }
+
+    public DecompositionSolver(Supplier<RouteSolver> regionSolver, Partition partition, int regionCount) {
+        this.regionSolver = regionSolver;
+        this.partition = partition;
+        this.regionCount = regionCount;
+    }
+
+    @Override
+    public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                     int depotIndex, int vehicleCount) {
+        return solve(travelTimes, geoPoints, depotIndex, vehicleCount, null);
+    }
+
+    // Region r gets the next vehiclesPerRegion[r] vehicles of the list, in region order
+    @Override
+    public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                     int depotIndex, List<Vehicle> vehicles) {
+        return solve(travelTimes, geoPoints, depotIndex, vehicles.size(), vehicles);
+    }
+
+    private List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                      int depotIndex, int vehicleCount, List<Vehicle> vehicles) {
+        movesEvaluated.set(0);
+        int n = geoPoints.size();
+        int[] customers = new int[n - 1];
+        for (int i = 0, c = 0; i < n; i++) {
+            if (i != depotIndex) customers[c++] = i;
+        }
+        int wanted = regionCount > 0 ? regionCount : Runtime.getRuntime().availableProcessors();
+        int k = Math.min(wanted, Math.min(vehicleCount, customers.length));
+        if (k <= 1) {
+            RouteSolver solver = regionSolver.get();
+            List<List<Integer>> routes = vehicles == null
+                    ? solver.solve(travelTimes, geoPoints, depotIndex, vehicleCount)
+                    : solver.solve(travelTimes, geoPoints, depotIndex, vehicles);
+            movesEvaluated.addAndGet(solver.movesEvaluated());
+            return routes;
+        }
+
+        double[] x = new double[n], y = new double[n];
+        project(geoPoints, x, y);
+        int[][] regions = partition == Partition.SWEEP
+                ? sweep(customers, depotIndex, x, y, k)
+                : kMeans(customers, depotIndex, x, y, k);
+        int[] vehiclesPerRegion = allocateVehicles(regions, vehicleCount);
+        List<List<Vehicle>> regionVehicles = new ArrayList<>(regions.length); // Sublists of vehicles, or nulls
+        int firstVehicle = 0;
+        for (int r = 0; r < regions.length; r++) {
+            regionVehicles.add(vehicles == null ? null : vehicles.subList(firstVehicle, firstVehicle + vehiclesPerRegion[r]));
+            firstVehicle += vehiclesPerRegion[r];
+        }
+
+        // Route: one independent solve per region
+        int[][][] regionRoutes = new int[regions.length][][];
+        IntStream.range(0, regions.length).parallel().forEach(r -> {
+            RegionView view = RegionView.of(travelTimes, depotIndex, regions[r]);
+            RouteSolver solver = regionSolver.get();
+            List<List<Integer>> local = vehicles == null
+                    ? solver.solve(view, view.points(geoPoints), 0, vehiclesPerRegion[r])
+                    : solver.solve(view, view.points(geoPoints), 0, regionVehicles.get(r));
+            movesEvaluated.addAndGet(solver.movesEvaluated());
+            regionRoutes[r] = new int[local.size()][];
+            for (int v = 0; v < local.size(); v++) {
+                List<Integer> route = local.get(v);
+                int[] customersOfRoute = new int[route.size() - 2];
+                for (int p = 1; p < route.size() - 1; p++) {
+                    customersOfRoute[p - 1] = view.global(route.get(p));
+                }
+                regionRoutes[r][v] = customersOfRoute;
+            }
+        });
+
+        // Boundary exchange between neighbouring regions
+        int count = regions.length; // k-means may leave fewer regions than asked for
+        if (count > 1) {
+            int pairs = count == 2 ? 1 : count;
+            for (int phase = 0; phase < 3; phase++) {
+                int current = phase;
+                IntStream.range(0, pairs).filter(i -> pairPhase(i, count) == current).parallel()
+                        .forEach(i -> exchange(travelTimes, geoPoints, depotIndex, regionRoutes, regionVehicles, i,
+                                (i + 1) % count));
+            }
+        }
+
+        List<List<Integer>> result = new ArrayList<>(vehicleCount);
+        for (int[][] routes : regionRoutes) {
+            for (int[] route : routes) {
+                List<Integer> vehicleRoute = new ArrayList<>(route.length + 2);
+                vehicleRoute.add(depotIndex);
+                for (int c : route) {
+                    vehicleRoute.add(c);
+                }
+                vehicleRoute.add(depotIndex);
+                result.add(vehicleRoute);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long movesEvaluated() {
+        return movesEvaluated.get();
+    }
+
+    // Pair (i, i+1) runs in phase i % 2, except the wrap-around pair of an odd region count, which
+    // would share region 0 with pair (0, 1)
+    private static int pairPhase(int i, int k) {
+        return i == k - 1 && k % 2 == 1 ? 2 : i % 2;
+    }
+
+    // Local search over the routes of regions a and b together; the routes stay with their region (and vehicle)
+    private void exchange(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex,
+                          int[][][] regionRoutes, List<List<Vehicle>> regionVehicles, int a, int b) {
+        int[][] routesA = regionRoutes[a], routesB = regionRoutes[b];
+        int count = 0;
+        for (int[] route : routesA) count += route.length;
+        for (int[] route : routesB) count += route.length;
+        int[] members = new int[count];
+        count = 0;
+        for (int[] route : routesA) for (int c : route) members[count++] = c;
+        for (int[] route : routesB) for (int c : route) members[count++] = c;
+
+        RegionView view = RegionView.granular(travelTimes, geoPoints, depotIndex, members);
+        int[][] start = new int[routesA.length + routesB.length][];
+        int[] startLen = new int[start.length];
+        for (int v = 0; v < start.length; v++) {
+            int[] route = v < routesA.length ? routesA[v] : routesB[v - routesA.length];
+            start[v] = new int[route.length];
+            for (int p = 0; p < route.length; p++) {
+                start[v][p] = view.local(route[p]);
+            }
+            startLen[v] = route.length;
+        }
+        List<Vehicle> vehicles = null;
+        if (regionVehicles.get(a) != null) {
+            vehicles = new ArrayList<>(regionVehicles.get(a));
+            vehicles.addAll(regionVehicles.get(b));
+        }
+        LocalSearchSolver improver = new LocalSearchSolver();
+        improver.improve(view, view.points(geoPoints), 0, start, startLen, vehicles);
+        movesEvaluated.addAndGet(improver.movesEvaluated());
+
+        for (int v = 0; v < start.length; v++) {
+            int[] route = new int[startLen[v]];
+            for (int p = 0; p < route.length; p++) {
+                route[p] = view.global(start[v][p]);
+            }
+            if (v < routesA.length) {
+                routesA[v] = route;
+            } else {
+                routesB[v - routesA.length] = route;
+            }
+        }
+    }
+
+    // --- Partitioning ---
+
+    // Equirectangular projection, good enough for grouping at city scale
+    private static void project(List<VRPSolverVisualizer2.GeoPoint> geoPoints, double[] x, double[] y) {
+        double meanLat = 0;
+        for (VRPSolverVisualizer2.GeoPoint p : geoPoints) {
+            meanLat += p.lat / geoPoints.size();
+        }
+        double cosMeanLat = Math.cos(Math.toRadians(meanLat));
+        for (int i = 0; i < x.length; i++) {
+            x[i] = geoPoints.get(i).lon * cosMeanLat;
+            y[i] = geoPoints.get(i).lat;
+        }
+    }
+
+    // k arcs around the depot with (almost) the same number of customers each
+    private static int[][] sweep(int[] customers, int depot, double[] x, double[] y, int k) {
+        int[] byAngle = sortedByAngle(customers, depot, x, y);
+        int[][] regions = new int[k][];
+        for (int r = 0; r < k; r++) {
+            int from = (int) ((long) byAngle.length * r / k), to = (int) ((long) byAngle.length * (r + 1) / k);
+            regions[r] = Arrays.copyOfRange(byAngle, from, to);
+        }
+        return regions;
+    }
+
+    // Lloyd's k-means started from the sweep arcs' centroids; empty clusters are dropped and the result
+    // is ordered by the angle of each centroid around the depot
+    private static int[][] kMeans(int[] customers, int depot, double[] x, double[] y, int k) {
+        int[][] seeds = sweep(customers, depot, x, y, k);
+        double[] cx = new double[k], cy = new double[k];
+        for (int r = 0; r < k; r++) {
+            for (int c : seeds[r]) {
+                cx[r] += x[c] / seeds[r].length;
+                cy[r] += y[c] / seeds[r].length;
+            }
+        }
+        int[] assigned = new int[customers.length];
+        int[] size = new int[k];
+        for (int iteration = 0; iteration < KMEANS_ITERATIONS; iteration++) {
+            IntStream.range(0, customers.length).parallel().forEach(i -> {
+                int c = customers[i], best = 0;
+                double bestDistance = Double.POSITIVE_INFINITY;
+                for (int r = 0; r < cx.length; r++) {
+                    double dx = x[c] - cx[r], dy = y[c] - cy[r];
+                    double distance = dx * dx + dy * dy;
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = r;
+                    }
+                }
+                assigned[i] = best;
+            });
+            Arrays.fill(size, 0);
+            double[] sumX = new double[k], sumY = new double[k];
+            for (int i = 0; i < customers.length; i++) {
+                size[assigned[i]]++;
+                sumX[assigned[i]] += x[customers[i]];
+                sumY[assigned[i]] += y[customers[i]];
+            }
+            for (int r = 0; r < k; r++) {
+                if (size[r] > 0) {
+                    cx[r] = sumX[r] / size[r];
+                    cy[r] = sumY[r] / size[r];
+                }
+            }
+        }
+
+        Integer[] order = new Integer[k];
+        for (int r = 0; r < k; r++) order[r] = r;
+        Arrays.sort(order, (a, b) -> Double.compare(Math.atan2(cy[a] - y[depot], cx[a] - x[depot]),
+                                                    Math.atan2(cy[b] - y[depot], cx[b] - x[depot])));
+        int nonEmpty = 0;
+        for (int r = 0; r < k; r++) {
+            if (size[r] > 0) nonEmpty++;
+        }
+        int[] rank = new int[k];
+        int next = 0;
+        for (int r : order) {
+            rank[r] = size[r] > 0 ? next++ : -1;
+        }
+        int[][] regions = new int[nonEmpty][];
+        for (int r = 0; r < k; r++) {
+            if (size[r] > 0) regions[rank[r]] = new int[size[r]];
+        }
+        int[] fill = new int[nonEmpty];
+        for (int i = 0; i < customers.length; i++) {
+            int r = rank[assigned[i]];
+            regions[r][fill[r]++] = customers[i];
+        }
+        return regions;
+    }
+
+    private static int[] sortedByAngle(int[] customers, int depot, double[] x, double[] y) {
+        // Same packing trick as the savings sort: order-preserving angle bits high, customer index low
+        long[] keys = new long[customers.length];
+        for (int i = 0; i < customers.length; i++) {
+            int c = customers[i];
+            float angle = (float) Math.atan2(y[c] - y[depot], x[c] - x[depot]);
+            keys[i] = ((long) LocalSearchSolver.sortableBits(angle) << 32) | c;
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[customers.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    // Vehicles in proportion to customers (largest remainder), at least one per region
+    private static int[] allocateVehicles(int[][] regions, int vehicleCount) {
+        int k = regions.length;
+        int total = 0;
+        for (int[] region : regions) total += region.length;
+        int[] vehicles = new int[k];
+        double[] remainder = new double[k];
+        int spare = vehicleCount - k;
+        int given = 0;
+        for (int r = 0; r < k; r++) {
+            double share = (double) spare * regions[r].length / total;
+            vehicles[r] = 1 + (int) share;
+            remainder[r] = share - (int) share;
+            given += vehicles[r];
+        }
+        while (given < vehicleCount) {
+            int best = 0;
+            for (int r = 1; r < k; r++) {
+                if (remainder[r] > remainder[best]) best = r;
+            }
+            vehicles[best]++;
+            remainder[best] = -1;
+            given++;
+        }
+        return vehicles;
+    }
+
+    // --- Region view of the travel times: local index 0 is the depot, 1.. the region's customers ---
+
+    static class RegionView implements TravelTimeMatrix {
+        final TravelTimeMatrix parent;
+        final int[] ids;      // Global index of each local index
+        final int[] localOf;  // Local index of each global index, -1 outside the region
+
+        RegionView(TravelTimeMatrix parent, int depot, int[] members) {
+            this.parent = parent;
+            this.ids = new int[members.length + 1];
+            this.ids[0] = depot;
+            System.arraycopy(members, 0, ids, 1, members.length);
+            this.localOf = new int[parent.size()];
+            Arrays.fill(localOf, -1);
+            for (int i = 0; i < ids.length; i++) {
+                localOf[ids[i]] = i;
+            }
+        }
+
+        // With granular candidates when the parent store has them
+        static RegionView of(TravelTimeMatrix parent, int depot, int[] members) {
+            return parent instanceof NeighborLists
+                    ? new GranularRegionView(parent, depot, members, (NeighborLists) parent)
+                    : new RegionView(parent, depot, members);
+        }
+
+        // Always granular: the parent's candidates, or for a dense parent the NEIGHBOR_COUNT nearest
+        // members from a GridIndex (the boundary exchange only needs moves between nearby customers)
+        static RegionView granular(TravelTimeMatrix parent, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                   int depot, int[] members) {
+            return parent instanceof NeighborLists
+                    ? new GranularRegionView(parent, depot, members, (NeighborLists) parent)
+                    : new GranularRegionView(parent, depot, members, geoPoints);
+        }
+
+        int global(int local) { return ids[local]; }
+        int local(int global) { return localOf[global]; }
+
+        List<VRPSolverVisualizer2.GeoPoint> points(List<VRPSolverVisualizer2.GeoPoint> geoPoints) {
+            List<VRPSolverVisualizer2.GeoPoint> points = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                points.add(geoPoints.get(id));
+            }
+            return points;
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+
+        @Override
+        public double get(int i, int j) {
+            return parent.get(ids[i], ids[j]);
+        }
+    }
+
+    // Region view with candidate lists in local indices
+    static class GranularRegionView extends RegionView implements NeighborLists {
+        private final int[] start; // Candidates of local i are candidates[start[i] .. start[i+1])
+        private final int[] candidates;
+
+        // The parent's candidate lists, without the candidates outside the region
+        GranularRegionView(TravelTimeMatrix parent, int depot, int[] members, NeighborLists lists) {
+            super(parent, depot, members);
+            int size = ids.length;
+            int[] first = new int[size + 1];
+            int total = 0;
+            for (int i = 0; i < size; i++) {
+                total += lists.neighborCount(ids[i]);
+            }
+            int[] buffer = new int[total];
+            int fill = 0;
+            for (int i = 0; i < size; i++) {
+                first[i] = fill;
+                for (int rank = 0; rank < lists.neighborCount(ids[i]); rank++) {
+                    int local = localOf[lists.neighbor(ids[i], rank)];
+                    if (local >= 0) buffer[fill++] = local;
+                }
+            }
+            first[size] = fill;
+            this.start = first;
+            this.candidates = Arrays.copyOf(buffer, fill);
+        }
+
+        // The VRPSolver.NEIGHBOR_COUNT nearest region points, from a GridIndex over the region
+        GranularRegionView(TravelTimeMatrix parent, int depot, int[] members, List<VRPSolverVisualizer2.GeoPoint> geoPoints) {
+            super(parent, depot, members);
+            int size = ids.length;
+            int k = Math.min(VRPSolver.NEIGHBOR_COUNT, size - 1);
+            GridIndex grid = new GridIndex(points(geoPoints));
+            int[] first = new int[size + 1];
+            int[] buffer = new int[size * k];
+            int fill = 0;
+            for (int i = 0; i < size; i++) {
+                first[i] = fill;
+                for (int j : grid.nearest(i, k)) {
+                    buffer[fill++] = j;
+                }
+            }
+            first[size] = fill;
+            this.start = first;
+            this.candidates = Arrays.copyOf(buffer, fill);
+        }
+
+        @Override
+        public int neighborCount(int i) {
+            return start[i + 1] - start[i];
+        }
+
+        @Override
+        public int neighbor(int i, int rank) {
+            return candidates[start[i] + rank];
+        }
+    }
+}
\ No newline at end of file
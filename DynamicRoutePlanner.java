@@ -0,0 +1,449 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Keeps the routes of a solved plan in memory and applies changes during the day without solving again:
+// - add:    a new stop gets its travel time row computed (DynamicTravelTimes.addPoint, O(n)) and is put
+//           at the cheapest feasible position of any route (O(total stops), O(1) check per position);
+// - cancel: the stop is taken out of its route;
+// - move:   the stop's row and column are recomputed and it is inserted again like a new stop.
+// After each change a short repair runs on the affected routes only: 2-opt and or-opt moves whose
+// positions lie within REPAIR_WINDOW of the change, at most REPAIR_ROUNDS sweeps. Every route keeps a
+// RouteFeasibility (once there is a capacity, shift length or time window to check), reloaded
+// only when that route changes.
+// A stop that fits nowhere feasibly goes where it adds the least violation; getSnapshot().getViolations()
+// reports it.
+// Time-dependent plans (TimeDependentTravelTimes): new rows go into the base matrix and are driven through
+// the same SpeedProfile. Every routed stop keeps its departure time in the current plan, updated with the
+// route; insertion costs take each leg at its departure (leaving the previous stop as planned, the new
+// stop right after its service) and feasibility sees the legs at those departures. A repair move is
+// estimated the same way and only applied if driving the changed route really takes less travel time.
+// Point indices never change: a cancelled stop keeps its index (and its travel times) but is not routed.
+// Not thread-safe: apply events from one thread, and hand other threads a getSnapshot().
+class DynamicRoutePlanner {
+    private static final double EPS = 1e-9;
+    static final int REPAIR_WINDOW = 8;
+    static final int REPAIR_ROUNDS = 3;
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+
+    private final List<VRPSolverVisualizer2.GeoPoint> geoPoints;
+    private final DynamicTravelTimes baseTimes;           // Grows with the point list, at constant speed
+    private final TimeDependentTravelTimes timeDependent; // baseTimes through the plan's SpeedProfile; null = constant speed
+    private final TravelTimeMatrix travelTimes;           // baseTimes, or the legs at their departures in the current plan
+    private final int depot;
+    private final List<Vehicle> vehicles;
+    private final int[][] routes;   // Customers per vehicle; the depot is implicit at both ends
+    private final int[] len;
+    private int[] routeOf;          // Route of each point, -1 for the depot and cancelled stops
+    private int[] posOf;
+    private double[] departure;     // Departure of every routed stop, time-dependent plans only (the depot's stays 0)
+    private final double[] routeTravel; // Travel time of each route, time-dependent plans only
+    private final RouteFeasibility[] feasibility;
+    private final RouteFeasibility[] trial; // Per route, for checking a repair move before applying it
+    private boolean constrained;    // Any capacity, shift length or time window to respect
+    private long events;
+
+    // One change to the plan
+    static final class Event {
+        enum Kind { ADD, CANCEL, MOVE }
+
+        final Kind kind;
+        final int point;                           // CANCEL, MOVE
+        final VRPSolverVisualizer2.GeoPoint stop;  // ADD
+        final double lat, lon;                     // MOVE
+
+        private Event(Kind kind, int point, VRPSolverVisualizer2.GeoPoint stop, double lat, double lon) {
+            this.kind = kind;
+            this.point = point;
+            this.stop = stop;
+            this.lat = lat;
+            this.lon = lon;
+        }
+
+        static Event add(VRPSolverVisualizer2.GeoPoint stop) { return new Event(Kind.ADD, -1, stop, 0, 0); }
+        static Event cancel(int point) { return new Event(Kind.CANCEL, point, null, 0, 0); }
+        static Event move(int point, double lat, double lon) { return new Event(Kind.MOVE, point, null, lat, lon); }
+    }
+
+    public DynamicRoutePlanner(VRPSolution solution) {
+        this.geoPoints = new ArrayList<>(solution.getGeoPoints());
+        this.depot = solution.getDepotIndex();
+        if (solution.getTravelTimes() instanceof TimeDependentTravelTimes solved) {
+            this.baseTimes = new DynamicTravelTimes(geoPoints, solved.getBase(), solved.getBaseSpeed());
+            this.timeDependent = new TimeDependentTravelTimes(baseTimes, solved.getBaseSpeed(), solved.getProfile());
+            this.travelTimes = new ScheduledTravelTimes();
+        } else {
+            this.baseTimes = new DynamicTravelTimes(geoPoints, solution.getTravelTimes(), VRPSolver.AVERAGE_SPEED_KM_PER_HOUR);
+            this.timeDependent = null;
+            this.travelTimes = baseTimes;
+        }
+        List<List<Integer>> vehicleRoutes = solution.getVehicleRoutes();
+        int vehicleCount = vehicleRoutes.size();
+        this.vehicles = new ArrayList<>(vehicleCount);
+        this.routes = new int[vehicleCount][];
+        this.len = new int[vehicleCount];
+        this.feasibility = new RouteFeasibility[vehicleCount];
+        this.trial = new RouteFeasibility[vehicleCount];
+        this.routeTravel = new double[vehicleCount];
+        int n = geoPoints.size();
+        this.routeOf = new int[Math.max(16, n * 2)];
+        this.posOf = new int[routeOf.length];
+        this.departure = new double[routeOf.length];
+        Arrays.fill(routeOf, -1);
+        for (int v = 0; v < vehicleCount; v++) {
+            Vehicle vehicle = solution.getVehicle(v);
+            vehicles.add(vehicle);
+            constrained |= vehicle.capacity != Double.POSITIVE_INFINITY || vehicle.shiftLength != Double.POSITIVE_INFINITY;
+            List<Integer> route = vehicleRoutes.get(v);
+            routes[v] = new int[Math.max(4, route.size() * 2)];
+            for (int p = 1; p < route.size() - 1; p++) {
+                routes[v][len[v]++] = route.get(p);
+            }
+            reindex(v, 0);
+            feasibility[v] = new RouteFeasibility(travelTimes, geoPoints, depot, vehicle);
+            trial[v] = new RouteFeasibility(travelTimes, geoPoints, depot, vehicle);
+        }
+        for (VRPSolverVisualizer2.GeoPoint point : geoPoints) {
+            constrained |= hasTimeWindow(point);
+        }
+        if (constrained || timeDependent != null) {
+            reloadAll();
+        }
+    }
+
+    // Applies one event; returns the index of the stop it concerned
+    public int apply(Event event) {
+        switch (event.kind) {
+            case ADD: return addStop(event.stop);
+            case CANCEL: cancelStop(event.point); return event.point;
+            default: moveStop(event.point, event.lat, event.lon); return event.point;
+        }
+    }
+
+    // New stop: appended to the point list (the returned index) and inserted into a route
+    public int addStop(VRPSolverVisualizer2.GeoPoint stop) {
+        int c = geoPoints.size();
+        geoPoints.add(stop);
+        baseTimes.addPoint();
+        if (c == routeOf.length) {
+            routeOf = Arrays.copyOf(routeOf, c * 2);
+            posOf = Arrays.copyOf(posOf, c * 2);
+            departure = Arrays.copyOf(departure, c * 2);
+            Arrays.fill(routeOf, c, routeOf.length, -1);
+        }
+        if (!constrained && hasTimeWindow(stop)) {
+            constrained = true; // From now on routes carry their feasibility summaries
+            reloadAll();
+        }
+        insertCheapest(c);
+        events++;
+        return c;
+    }
+
+    // Takes a stop out of its route; false if it was not routed (already cancelled)
+    public boolean cancelStop(int point) {
+        checkStop(point);
+        int r = routeOf[point];
+        if (r < 0) return false;
+        int p = posOf[point];
+        remove(r, p);
+        routeOf[point] = -1;
+        reload(r);
+        repair(r, p);
+        events++;
+        return true;
+    }
+
+    // New location for a routed stop; it is re-inserted at the cheapest feasible position (any route)
+    public void moveStop(int point, double lat, double lon) {
+        checkStop(point);
+        int r = routeOf[point];
+        if (r < 0) throw new IllegalArgumentException("Stop " + point + " is cancelled");
+        // A new GeoPoint, not a mutation: snapshots and the original solution keep the old location
+        VRPSolverVisualizer2.GeoPoint old = geoPoints.get(point);
+        geoPoints.set(point, new VRPSolverVisualizer2.GeoPoint(lat, lon, old.label, old.serviceDuration,
+                                                               old.demand, old.readyTime, old.dueTime));
+        int p = posOf[point];
+        remove(r, p);
+        reload(r);
+        baseTimes.updatePoint(point); // The stop is out of every route while its times change
+        repair(r, p);
+        insertCheapest(point);
+        events++;
+    }
+
+    public long getEventCount() { return events; }
+    public int getPointCount() { return geoPoints.size(); }
+    public boolean isRouted(int point) { return routeOf[point] >= 0; }
+
+    // Current routes in the vehicleRoutes form (depot first and last)
+    public List<List<Integer>> getVehicleRoutes() {
+        List<List<Integer>> result = new ArrayList<>(routes.length);
+        for (int v = 0; v < routes.length; v++) {
+            List<Integer> route = new ArrayList<>(len[v] + 2);
+            route.add(depot);
+            for (int p = 0; p < len[v]; p++) {
+                route.add(routes[v][p]);
+            }
+            route.add(depot);
+            result.add(route);
+        }
+        return result;
+    }
+
+    // Independent VRPSolution of the current plan, with a fresh CPM analysis (O(n^2) for the travel
+    // time copy, so call it for display or reporting, not per event)
+    public VRPSolution getSnapshot() {
+        SolveMetrics metrics = new SolveMetrics(geoPoints.size() + " points, " + events + " events");
+        List<VRPSolverVisualizer2.GeoPoint> points = List.copyOf(geoPoints);
+        DynamicTravelTimes copy = baseTimes.copy();
+        TravelTimeMatrix times = timeDependent == null
+                ? copy
+                : new TimeDependentTravelTimes(copy, timeDependent.getBaseSpeed(), timeDependent.getProfile());
+        List<List<Integer>> vehicleRoutes = getVehicleRoutes();
+        CPMCalculator cpm = metrics.time("cpm.graph",
+                () -> new CPMCalculator(ActivityGraph.fromRoutes(vehicleRoutes, times, points, depot)));
+        metrics.time("cpm.calculate", cpm::calculateCPM);
+        metrics.count("dynamic.events", events);
+        return new VRPSolution(points, depot, times, vehicleRoutes, List.copyOf(vehicles), cpm, metrics);
+    }
+
+    // --- Insertion ---
+
+    // Cheapest position that adds no violation; if there is none, the position adding the least violation
+    private void insertCheapest(int c) {
+        int bestRoute = -1, bestPos = -1;
+        double bestDelta = Double.POSITIVE_INFINITY, bestViolation = Double.POSITIVE_INFINITY;
+        for (int r = 0; r < routes.length; r++) {
+            double current = constrained ? feasibility[r].violation() : 0;
+            for (int p = 0; p <= len[r]; p++) {
+                int u = at(r, p - 1), w = at(r, p);
+                double delta = insertionDelta(c, u, w);
+                double extraViolation = constrained ? Math.max(0, feasibility[r].insertionViolation(c, p) - current) : 0;
+                if (extraViolation > bestViolation + EPS) continue;
+                if (extraViolation < bestViolation - EPS || delta < bestDelta) {
+                    bestRoute = r;
+                    bestPos = p;
+                    bestDelta = delta;
+                    bestViolation = extraViolation <= EPS ? 0 : extraViolation;
+                }
+            }
+        }
+        insert(bestRoute, bestPos, c);
+        reload(bestRoute);
+        repair(bestRoute, bestPos);
+    }
+
+    // Travel time added by putting c between u and w. On time-dependent plans every leg is taken at its
+    // departure: u as planned, c right after its service; departure[c] is set to that so the feasibility
+    // check that follows sees the same leg from c.
+    private double insertionDelta(int c, int u, int w) {
+        if (timeDependent == null) {
+            return travelTimes.get(u, c) + travelTimes.get(c, w) - travelTimes.get(u, w);
+        }
+        double leave = departure[u];
+        double toC = timeDependent.get(u, c, leave);
+        VRPSolverVisualizer2.GeoPoint point = geoPoints.get(c);
+        departure[c] = Math.max(leave + toC, point.readyTime) + point.serviceDuration;
+        return toC + timeDependent.get(c, w, departure[c]) - timeDependent.get(u, w, leave);
+    }
+
+    // --- Bounded repair around position p of route r ---
+
+    private void repair(int r, int p) {
+        for (int round = 0; round < REPAIR_ROUNDS; round++) {
+            int lo = Math.max(0, p - REPAIR_WINDOW), hi = Math.min(len[r] - 1, p + REPAIR_WINDOW);
+            if (hi - lo < 1) return;
+            if (!twoOpt(r, lo, hi) & !orOpt(r, lo, hi)) return;
+        }
+    }
+
+    // Reverse route[i..j] for lo <= i < j <= hi
+    private boolean twoOpt(int r, int lo, int hi) {
+        TravelTimeMatrix d = travelTimes;
+        int[] a = routes[r];
+        boolean improved = false;
+        for (int i = lo; i < hi; i++) {
+            int before = at(r, i - 1);
+            for (int j = i + 1; j <= hi; j++) {
+                int after = at(r, j + 1);
+                double delta = d.get(before, a[j]) + d.get(a[i], after) - d.get(before, a[i]) - d.get(a[j], after);
+                if (delta < -EPS && acceptsReverse(r, i, j)) {
+                    reverse(a, i, j);
+                    reindex(r, i);
+                    reload(r);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Move a segment of 1..MAX_OR_OPT_SEGMENT customers starting in [lo, hi] to a gap in [lo, hi + 1]
+    private boolean orOpt(int r, int lo, int hi) {
+        TravelTimeMatrix d = travelTimes;
+        int[] a = routes[r];
+        boolean improved = false;
+        for (int k = 1; k <= MAX_OR_OPT_SEGMENT; k++) {
+            for (int i = lo; i <= hi && i + k <= len[r]; i++) {
+                int before = at(r, i - 1), after = at(r, i + k);
+                int first = a[i], last = a[i + k - 1];
+                double removeGain = d.get(before, first) + d.get(last, after) - d.get(before, after);
+                for (int g = lo; g <= Math.min(hi + 1, len[r]); g++) {
+                    if (g >= i && g <= i + k) continue; // Gap touches the segment itself
+                    int u = at(r, g - 1), w = at(r, g);
+                    double delta = d.get(u, first) + d.get(last, w) - d.get(u, w) - removeGain;
+                    if (delta < -EPS && acceptsMove(r, i, k, g)) {
+                        moveSegment(a, i, k, g);
+                        reindex(r, Math.min(i, g));
+                        reload(r);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Whether the route after the move is no less feasible than now (and, on time-dependent plans, really
+    // shorter). O(route) on the trial RouteFeasibility, and only reached for moves estimated to shorten the route.
+    private boolean acceptsReverse(int r, int i, int j) {
+        if (!constrained && timeDependent == null) return true;
+        int[] candidate = Arrays.copyOf(routes[r], len[r]);
+        reverse(candidate, i, j);
+        return accepts(r, candidate);
+    }
+
+    private boolean acceptsMove(int r, int i, int k, int g) {
+        if (!constrained && timeDependent == null) return true;
+        int[] candidate = Arrays.copyOf(routes[r], len[r]);
+        moveSegment(candidate, i, k, g);
+        return accepts(r, candidate);
+    }
+
+    private boolean accepts(int r, int[] candidate) {
+        if (timeDependent == null) {
+            return noWorse(r, candidate);
+        }
+        // The estimate took the legs at the departures of the current order: drive the candidate instead
+        boolean accepted = schedule(candidate, candidate.length) < routeTravel[r] - EPS && (!constrained || noWorse(r, candidate));
+        if (!accepted) {
+            schedule(routes[r], len[r]);
+        }
+        return accepted;
+    }
+
+    private boolean noWorse(int r, int[] candidate) {
+        trial[r].load(candidate, candidate.length);
+        return trial[r].violation() <= feasibility[r].violation() + EPS;
+    }
+
+    // --- Route array helpers (keep routeOf/posOf in sync) ---
+
+    private void insert(int r, int p, int c) {
+        if (len[r] == routes[r].length) {
+            routes[r] = Arrays.copyOf(routes[r], len[r] * 2);
+        }
+        System.arraycopy(routes[r], p, routes[r], p + 1, len[r] - p);
+        routes[r][p] = c;
+        len[r]++;
+        routeOf[c] = r;
+        reindex(r, p);
+    }
+
+    private void remove(int r, int p) {
+        System.arraycopy(routes[r], p + 1, routes[r], p, len[r] - p - 1);
+        len[r]--;
+        reindex(r, p);
+    }
+
+    private static void reverse(int[] a, int i, int j) {
+        while (i < j) {
+            int t = a[i];
+            a[i++] = a[j];
+            a[j--] = t;
+        }
+    }
+
+    // Move a[i..i+k-1] so that it sits in gap g (gap g lies between positions g-1 and g)
+    private static void moveSegment(int[] a, int i, int k, int g) {
+        int[] segment = Arrays.copyOfRange(a, i, i + k);
+        if (g < i) {
+            System.arraycopy(a, g, a, g + k, i - g);
+            System.arraycopy(segment, 0, a, g, k);
+        } else {
+            System.arraycopy(a, i + k, a, i, g - i - k);
+            System.arraycopy(segment, 0, a, g - k, k);
+        }
+    }
+
+    private void reindex(int r, int from) {
+        for (int p = from; p < len[r]; p++) {
+            routeOf[routes[r][p]] = r;
+            posOf[routes[r][p]] = p;
+        }
+    }
+
+    // Departures and feasibility summaries are only kept once there is something to check (O(route) per change)
+    private void reload(int r) {
+        if (timeDependent != null) {
+            routeTravel[r] = schedule(routes[r], len[r]);
+        }
+        if (constrained) {
+            feasibility[r].load(routes[r], len[r]);
+        }
+    }
+
+    private void reloadAll() {
+        for (int r = 0; r < routes.length; r++) {
+            reload(r);
+        }
+    }
+
+    // Sets departure[] for the stops of a route like TimeDependentTravelTimes.departureTimes (leave the
+    // depot at shift start, wait for ready times, serve each stop) and returns the route's travel time
+    private double schedule(int[] route, int count) {
+        double clock = 0, travel = 0;
+        int previous = depot;
+        for (int p = 0; p < count; p++) {
+            int c = route[p];
+            double leg = timeDependent.get(previous, c, clock);
+            VRPSolverVisualizer2.GeoPoint point = geoPoints.get(c);
+            clock = Math.max(clock + leg, point.readyTime) + point.serviceDuration;
+            departure[c] = clock;
+            travel += leg;
+            previous = c;
+        }
+        return travel + timeDependent.get(previous, depot, clock);
+    }
+
+    // Node at position p of route r; positions outside the route are the depot
+    private int at(int r, int p) {
+        return p < 0 || p >= len[r] ? depot : routes[r][p];
+    }
+
+    private void checkStop(int point) {
+        if (point < 0 || point >= geoPoints.size() || point == depot) {
+            throw new IllegalArgumentException("Not a stop: " + point);
+        }
+    }
+
+    private static boolean hasTimeWindow(VRPSolverVisualizer2.GeoPoint point) {
+        return point.readyTime > 0 || point.dueTime != Double.POSITIVE_INFINITY;
+    }
+
+    // Time-dependent legs at the departures of the current plan, like TimeDependentTravelTimes.atDepartures()
+    // but following departure[] as routes change
+    private final class ScheduledTravelTimes implements TravelTimeMatrix {
+        @Override
+        public int size() {
+            return baseTimes.size();
+        }
+
+        @Override
+        public double get(int i, int j) {
+            return timeDependent.get(i, j, departure[i]);
+        }
+    }
+}
\ No newline at end of file
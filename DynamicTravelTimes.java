@@ -0,0 +1,117 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Travel times that grow with the point list, for DynamicRoutePlanner.
+// Lower triangle stored as one row per point: row i holds the times to points 0..i-1, so adding a point
+// only computes its own row (n haversine calls) and never copies the existing rows. Moving a point
+// recomputes its row and its column (entry i of every later row), also O(n).
+// Memory is about n*n/2 doubles, the same order as the dense DOUBLE matrix it replaces.
+// Like TravelTimeMatrixBuilder, radians and cos(lat) are kept per point, so a pair costs two sin calls
+// and one asin instead of the full haversineDistance.
+// Single writer: addPoint/updatePoint must not run concurrently with readers.
+class DynamicTravelTimes implements TravelTimeMatrix {
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private final List<VRPSolverVisualizer2.GeoPoint> geoPoints; // Shared with the planner, read on add/update
+    private final double minutesPerKm;
+    private double[][] rows;
+    private double[] latRad, lonRad, cosLat;
+    private int n;
+
+    // Starts from the times the routes were solved with, so the existing routes keep their costs (for
+    // time-dependent times: their base matrix at the base speed, see DynamicRoutePlanner)
+    public DynamicTravelTimes(List<VRPSolverVisualizer2.GeoPoint> geoPoints, TravelTimeMatrix initial,
+                              double averageSpeedKmPerHour) {
+        this.geoPoints = geoPoints;
+        this.minutesPerKm = 60 / averageSpeedKmPerHour;
+        this.n = initial.size();
+        this.rows = new double[Math.max(16, n * 2)][];
+        this.latRad = new double[rows.length];
+        this.lonRad = new double[rows.length];
+        this.cosLat = new double[rows.length];
+        for (int i = 0; i < n; i++) {
+            setTrig(i);
+        }
+        IntStream.range(0, n).parallel().forEach(i -> {
+            double[] row = new double[i];
+            for (int j = 0; j < i; j++) {
+                row[j] = initial.get(i, j);
+            }
+            rows[i] = row;
+        });
+    }
+
+    private DynamicTravelTimes(DynamicTravelTimes other) {
+        this.geoPoints = other.geoPoints;
+        this.minutesPerKm = other.minutesPerKm;
+        this.n = other.n;
+        this.rows = new double[other.rows.length][];
+        this.latRad = other.latRad.clone();
+        this.lonRad = other.lonRad.clone();
+        this.cosLat = other.cosLat.clone();
+        for (int i = 0; i < n; i++) {
+            rows[i] = other.rows[i].clone();
+        }
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        if (i == j) return 0;
+        return i > j ? rows[i][j] : rows[j][i];
+    }
+
+    // Computes the row of geoPoints.get(size()), which must already be in the point list
+    public void addPoint() {
+        if (n == rows.length) {
+            rows = Arrays.copyOf(rows, n * 2);
+            latRad = Arrays.copyOf(latRad, n * 2);
+            lonRad = Arrays.copyOf(lonRad, n * 2);
+            cosLat = Arrays.copyOf(cosLat, n * 2);
+        }
+        setTrig(n);
+        double[] row = new double[n];
+        for (int j = 0; j < n; j++) {
+            row[j] = compute(n, j);
+        }
+        rows[n++] = row;
+    }
+
+    // Recomputes row and column of point i after its location changed in the point list
+    public void updatePoint(int i) {
+        setTrig(i);
+        double[] row = rows[i];
+        for (int j = 0; j < i; j++) {
+            row[j] = compute(i, j);
+        }
+        for (int k = i + 1; k < n; k++) {
+            rows[k][i] = compute(k, i);
+        }
+    }
+
+    // Independent copy of the current times (later addPoint/updatePoint calls do not change it)
+    public DynamicTravelTimes copy() {
+        return new DynamicTravelTimes(this);
+    }
+
+    private void setTrig(int i) {
+        VRPSolverVisualizer2.GeoPoint p = geoPoints.get(i);
+        latRad[i] = Math.toRadians(p.lat);
+        lonRad[i] = Math.toRadians(p.lon);
+        cosLat[i] = Math.cos(latRad[i]);
+    }
+
+    // Same formula as TravelTimeMatrixBuilder.travelTime, so new rows match the initial dense matrix
+    private double compute(int i, int j) {
+        double sinLat = Math.sin((latRad[j] - latRad[i]) / 2);
+        double sinLon = Math.sin((lonRad[j] - lonRad[i]) / 2);
+        double a = sinLat * sinLat + cosLat[i] * cosLat[j] * sinLon * sinLon;
+        double distanceKm = EARTH_RADIUS_KM * 2 * Math.asin(Math.min(1, Math.sqrt(a)));
+        return distanceKm * minutesPerKm;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,259 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Buffered text output straight to a channel, for large route and CPM tables.
+// Text goes into one 64 KB ByteBuffer that is written to the channel when full, so there is no
+// String.format, no per-line String and no encoder per call. ASCII is copied byte by byte (labels
+// with other characters are encoded with the writer's charset).
+// fixed(value, decimals) prints like String.format("%.2f"): HALF_UP on the shortest decimal form of the
+// double (2.675 gives 2.68 although the double is slightly below), "-0.00" for small negatives,
+// "NaN" and "Infinity"; only values within 1e-6 of a rounding tie (or huge ones) go through BigDecimal.
+// Below 1e9 units the product value * 10^decimals is off by less than 1e-7, so the fast rounding is exact.
+class ExportWriter implements AutoCloseable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000};
+    private static final double MAX_FAST_UNITS = 1e9;
+
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final Charset charset;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final byte[] digits = new byte[20];
+
+    private ExportWriter(WritableByteChannel channel, boolean closeChannel, Charset charset) {
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.charset = charset;
+    }
+
+    // New or truncated UTF-8 file
+    public static ExportWriter open(Path file) throws IOException {
+        return new ExportWriter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), true, StandardCharsets.UTF_8);
+    }
+
+    // System.out in its own charset; close() flushes but leaves System.out open
+    public static ExportWriter console() {
+        return new ExportWriter(Channels.newChannel(System.out), false, System.out.charset());
+    }
+
+    // UTF-8 to any channel, e.g. an in-memory one in checks; close() closes it
+    static ExportWriter to(WritableByteChannel channel) {
+        return new ExportWriter(channel, true, StandardCharsets.UTF_8);
+    }
+
+    public ExportWriter text(String s) throws IOException {
+        int length = s.length();
+        if (buffer.remaining() >= length) {
+            // Fits: copy straight into the backing array, falling back at the first non-ASCII character
+            byte[] array = buffer.array();
+            int position = buffer.position();
+            int i = 0;
+            for (; i < length; i++) {
+                char c = s.charAt(i);
+                if (c >= 0x80) break;
+                array[position + i] = (byte) c;
+            }
+            buffer.position(position + i);
+            if (i == length) return this;
+            bytes(s.substring(i).getBytes(charset));
+            return this;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                bytes(s.substring(i).getBytes(charset));
+                return this;
+            }
+            if (!buffer.hasRemaining()) flush();
+            buffer.put((byte) c);
+        }
+        return this;
+    }
+
+    public ExportWriter ch(char c) throws IOException {
+        if (c >= 0x80) return text(String.valueOf(c));
+        if (!buffer.hasRemaining()) flush();
+        buffer.put((byte) c);
+        return this;
+    }
+
+    public ExportWriter newline() throws IOException {
+        return text(System.lineSeparator());
+    }
+
+    // Left-aligned in a field of at least `width` characters, like %-40s
+    public ExportWriter padRight(String s, int width) throws IOException {
+        text(s);
+        return spaces(width - s.length());
+    }
+
+    public ExportWriter spaces(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            ch(' ');
+        }
+        return this;
+    }
+
+    public ExportWriter number(long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) return text(Long.toString(value));
+            ch('-');
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (count > 0) {
+            ch((char) digits[--count]);
+        }
+        return this;
+    }
+
+    // Right-aligned in a field of `width` characters, like %7.2f
+    public ExportWriter fixed(double value, int decimals, int width) throws IOException {
+        if (!fast(value, decimals)) {
+            String s = Double.isNaN(value) || Double.isInfinite(value) ? Double.toString(value) : exact(value, decimals);
+            return spaces(width - s.length()).text(s);
+        }
+        int start = buffer.position();
+        if (BUFFER_BYTES - start < 64) {
+            flush();
+            start = 0;
+        }
+        fixed(value, decimals);
+        int written = buffer.position() - start;
+        if (written < width) {
+            // Shift the number right inside the buffer and fill the gap with spaces
+            byte[] array = buffer.array();
+            int pad = width - written;
+            System.arraycopy(array, start, array, start + pad, written);
+            for (int i = 0; i < pad; i++) {
+                array[start + i] = ' ';
+            }
+            buffer.position(start + written + pad);
+        }
+        return this;
+    }
+
+    public ExportWriter fixed(double value, int decimals) throws IOException {
+        if (Double.isNaN(value)) return text("NaN");
+        boolean negative = Double.doubleToRawLongBits(value) < 0;
+        double abs = Math.abs(value);
+        if (Double.isInfinite(abs)) return text(negative ? "-Infinity" : "Infinity");
+        if (!fast(value, decimals)) return text(exact(value, decimals));
+        long scale = POWERS_OF_TEN[decimals];
+        long units = (long) Math.floor(abs * scale + 0.5);
+        if (negative) ch('-');
+        number(units / scale);
+        if (decimals > 0) {
+            ch('.');
+            long rest = units % scale;
+            for (long p = scale / 10; p > 0; p /= 10) {
+                ch((char) ('0' + rest / p % 10));
+            }
+        }
+        return this;
+    }
+
+    // Finite, not too large and not near a tie (where the product may have rounded the wrong way)
+    private static boolean fast(double value, int decimals) {
+        if (decimals >= POWERS_OF_TEN.length) return false;
+        double scaled = Math.abs(value) * POWERS_OF_TEN[decimals];
+        return scaled < MAX_FAST_UNITS && Math.abs(scaled - Math.floor(scaled) - 0.5) >= 1e-6;
+    }
+
+    private static String exact(double value, int decimals) {
+        String s = BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+        return Double.doubleToRawLongBits(value) < 0 && s.charAt(0) != '-' ? "-" + s : s;
+    }
+
+    // CSV field, quoted only when it contains a separator, quote or line break (RFC 4180)
+    public ExportWriter csv(String s) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return text(s);
+        ch('"');
+        for (int i = 0; i < s.length(); ) {
+            if (s.charAt(i) == '"') ch('"');
+            i = character(s, i);
+        }
+        return ch('"');
+    }
+
+    // JSON string literal, escaped as in SolveMetrics.appendString
+    public ExportWriter json(String s) throws IOException {
+        ch('"');
+        for (int i = 0; i < s.length(); ) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                ch('\\').ch(c);
+                i++;
+            } else if (c < 0x20) {
+                text("\\u00").ch(Character.forDigit(c >> 4, 16)).ch(Character.forDigit(c & 15, 16));
+                i++;
+            } else {
+                i = character(s, i);
+            }
+        }
+        return ch('"');
+    }
+
+    // JSON number with the given decimals; JSON has no NaN or Infinity
+    public ExportWriter json(double value, int decimals) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return text("null");
+        return fixed(value, decimals);
+    }
+
+    // Writes the character at i (both halves of a surrogate pair together); returns the next index
+    private int character(String s, int i) throws IOException {
+        char c = s.charAt(i);
+        if (Character.isHighSurrogate(c) && i + 1 < s.length()) {
+            text(s.substring(i, i + 2));
+            return i + 2;
+        }
+        ch(c);
+        return i + 1;
+    }
+
+    private void bytes(byte[] bytes) throws IOException {
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining()) flush();
+            int count = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (closeChannel) {
+            channel.close();
+        } else {
+            System.out.flush();
+        }
+    }
+}
\ No newline at end of file
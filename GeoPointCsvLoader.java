@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams GeoPoint records from a CSV file: lat,lon,label[,serviceDuration[,demand[,readyTime,dueTime]]]
+// The file is read through a FileChannel into one reusable buffer and fields are parsed straight from
+// the bytes; only the label becomes a String. A first line that does not start with a number is treated
+// as a header. Labels may be double-quoted to contain commas ("" is an escaped quote).
+// Numbers are decimal with an optional sign, fraction and exponent, accumulated in a long (18 significant
+// digits), so a value may differ from Double.parseDouble in the last bit or two - far below GPS precision.
+class GeoPointCsvLoader {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private int pos;      // Parse position inside the current line
+    private int lineEnd;  // Index of the '\n' (or end of data) that ends the current line
+    private long lineNumber;
+
+    public static List<VRPSolverVisualizer2.GeoPoint> load(Path path) throws IOException {
+        return new GeoPointCsvLoader().read(path);
+    }
+
+    private List<VRPSolverVisualizer2.GeoPoint> read(Path path) throws IOException {
+        List<VRPSolverVisualizer2.GeoPoint> points = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boolean eof = false;
+            while (!eof) {
+                eof = channel.read(buffer) < 0;
+                int limit = buffer.position();
+                int lineStart = 0;
+                while (true) {
+                    int newline = indexOf((byte) '\n', lineStart, limit);
+                    if (newline < 0) {
+                        if (!eof) break;       // Incomplete line: keep it for the next read
+                        if (lineStart == limit) break;
+                        newline = limit;        // Last line without a trailing newline
+                    }
+                    lineNumber++;
+                    parseLine(lineStart, newline, points);
+                    lineStart = newline + 1;
+                    if (lineStart > limit) break;
+                }
+                if (lineStart == 0 && limit == bytes.length) {
+                    throw new IOException(path + ": line " + (lineNumber + 1) + " is longer than " + BUFFER_SIZE + " bytes");
+                }
+                // Move the unparsed tail to the front of the buffer
+                int remaining = Math.max(0, limit - lineStart);
+                System.arraycopy(bytes, Math.min(lineStart, limit), bytes, 0, remaining);
+                buffer.position(remaining);
+            }
+        }
+        return points;
+    }
+
+    private void parseLine(int start, int end, List<VRPSolverVisualizer2.GeoPoint> points) throws IOException {
+        if (end > start && bytes[end - 1] == '\r') end--;
+        if (end == start) return; // Blank line
+        pos = start;
+        lineEnd = end;
+        skipSpaces();
+        if (lineNumber == 1 && !isNumberStart()) return; // Header
+        double lat = parseNumber();
+        expectComma();
+        double lon = parseNumber();
+        expectComma();
+        String label = parseLabel();
+        double serviceDuration = optionalNumber(0);
+        double demand = optionalNumber(0);
+        double readyTime = optionalNumber(0);
+        double dueTime = optionalNumber(Double.POSITIVE_INFINITY);
+        points.add(new VRPSolverVisualizer2.GeoPoint(lat, lon, label, serviceDuration, demand, readyTime, dueTime));
+    }
+
+    // Next field if the line has one and it is not empty, otherwise the default
+    private double optionalNumber(double defaultValue) throws IOException {
+        if (pos >= lineEnd || bytes[pos] != ',') return defaultValue;
+        pos++;
+        skipSpaces();
+        if (pos >= lineEnd || bytes[pos] == ',') return defaultValue;
+        return parseNumber();
+    }
+
+    private double parseNumber() throws IOException {
+        skipSpaces();
+        boolean negative = false;
+        if (pos < lineEnd && (bytes[pos] == '-' || bytes[pos] == '+')) {
+            negative = bytes[pos++] == '-';
+        }
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean any = false, fraction = false;
+        for (; pos < lineEnd; pos++) {
+            byte b = bytes[pos];
+            if (b >= '0' && b <= '9') {
+                any = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) digits++;
+                    if (fraction) scale--;
+                } else if (!fraction) {
+                    scale++; // Digits beyond long precision only shift the magnitude
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!any) throw error("number expected");
+        if (pos < lineEnd && (bytes[pos] == 'e' || bytes[pos] == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < lineEnd && (bytes[pos] == '-' || bytes[pos] == '+')) {
+                negativeExponent = bytes[pos++] == '-';
+            }
+            int exponent = 0;
+            while (pos < lineEnd && bytes[pos] >= '0' && bytes[pos] <= '9') {
+                exponent = Math.min(10000, exponent * 10 + (bytes[pos++] - '0'));
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        skipSpaces();
+        double value = mantissa;
+        if (scale < 0) {
+            value = -scale < POW10.length ? value / POW10[-scale] : value * Math.pow(10, scale);
+        } else if (scale > 0) {
+            value = scale < POW10.length ? value * POW10[scale] : value * Math.pow(10, scale);
+        }
+        return negative ? -value : value;
+    }
+
+    private String parseLabel() {
+        skipSpaces();
+        if (pos < lineEnd && bytes[pos] == '"') {
+            pos++;
+            StringBuilder label = null;
+            int start = pos;
+            while (pos < lineEnd) {
+                if (bytes[pos] == '"') {
+                    if (pos + 1 < lineEnd && bytes[pos + 1] == '"') { // Escaped quote
+                        if (label == null) label = new StringBuilder();
+                        label.append(new String(bytes, start, pos + 1 - start, StandardCharsets.UTF_8));
+                        pos += 2;
+                        start = pos;
+                        continue;
+                    }
+                    break;
+                }
+                pos++;
+            }
+            String tail = new String(bytes, start, pos - start, StandardCharsets.UTF_8);
+            if (pos < lineEnd) pos++; // Closing quote
+            skipSpaces();
+            return label == null ? tail : label.append(tail).toString();
+        }
+        int start = pos;
+        int comma = indexOf((byte) ',', pos, lineEnd);
+        pos = comma < 0 ? lineEnd : comma;
+        int end = pos;
+        while (end > start && bytes[end - 1] == ' ') end--;
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private void expectComma() throws IOException {
+        skipSpaces();
+        if (pos >= lineEnd || bytes[pos] != ',') throw error("',' expected");
+        pos++;
+    }
+
+    private boolean isNumberStart() {
+        if (pos >= lineEnd) return false;
+        byte b = bytes[pos];
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+    }
+
+    private void skipSpaces() {
+        while (pos < lineEnd && (bytes[pos] == ' ' || bytes[pos] == '\t')) pos++;
+    }
+
+    private int indexOf(byte target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == target) return i;
+        }
+        return -1;
+    }
+
+    private IOException error(String message) {
+        return new IOException("CSV line " + lineNumber + ": " + message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+import java.util.List;
+
+// Uniform grid over GeoPoint lat/lon used for k-nearest-neighbour queries.
+// Points are bucketed on an equirectangular projection (x = lon * cos(meanLat), y = lat),
+// which is accurate enough at city scale; the final neighbour order is decided by the caller.
+// Buckets are stored CSR-style (cellStart/cellItems) so the index is two int arrays.
+class GridIndex {
+    private final int n;
+    private final double[] x, y;
+    private final double minX, minY, cellSize;
+    private final int cols, rows;
+    private final int[] cellStart; // cellItems[cellStart[c] .. cellStart[c+1]) are the points in cell c
+    private final int[] cellItems;
+
+    public GridIndex(List<VRPSolverVisualizer2.GeoPoint> geoPoints) {
+        this.n = geoPoints.size();
+        this.x = new double[n];
+        this.y = new double[n];
+        double meanLat = 0;
+        for (VRPSolverVisualizer2.GeoPoint p : geoPoints) {
+            meanLat += p.lat / n;
+        }
+        double cosMeanLat = Math.cos(Math.toRadians(meanLat));
+        double loX = Double.POSITIVE_INFINITY, loY = Double.POSITIVE_INFINITY;
+        double hiX = Double.NEGATIVE_INFINITY, hiY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            x[i] = geoPoints.get(i).lon * cosMeanLat;
+            y[i] = geoPoints.get(i).lat;
+            loX = Math.min(loX, x[i]);
+            hiX = Math.max(hiX, x[i]);
+            loY = Math.min(loY, y[i]);
+            hiY = Math.max(hiY, y[i]);
+        }
+        this.minX = loX;
+        this.minY = loY;
+
+        // Aim for about two points per cell, without letting a long thin layout create more than ~n cells per axis
+        double width = Math.max(hiX - loX, 1e-9), height = Math.max(hiY - loY, 1e-9);
+        this.cellSize = Math.max(Math.sqrt(width * height / Math.max(1, n / 2.0)), Math.max(width, height) / Math.max(1, n));
+        this.cols = (int) (width / cellSize) + 1;
+        this.rows = (int) (height / cellSize) + 1;
+
+        // Counting sort of points into cells
+        int[] cellOf = new int[n];
+        this.cellStart = new int[cols * rows + 1];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = cell(col(x[i]), row(y[i]));
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        this.cellItems = new int[n];
+        int[] fill = new int[cols * rows];
+        for (int i = 0; i < n; i++) {
+            cellItems[cellStart[cellOf[i]] + fill[cellOf[i]]++] = i;
+        }
+    }
+
+    // Up to k points nearest to point i (excluding i), closest first by projected distance
+    public int[] nearest(int i, int k) {
+        k = Math.min(k, n - 1);
+        int[] heapIds = new int[k];   // Max-heap on distance: root is the worst of the current best k
+        double[] heapDist = new double[k];
+        int size = 0;
+
+        int cx = col(x[i]), cy = row(y[i]);
+        int maxRing = Math.max(cols, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Points not yet visited (this ring and beyond) are more than (ring - 1) * cellSize away
+            double ringDist = (ring - 1) * cellSize;
+            if (size == k && ring > 0 && ringDist * ringDist > heapDist[0]) break;
+
+            for (int gy = cy - ring; gy <= cy + ring; gy++) {
+                if (gy < 0 || gy >= rows) continue;
+                boolean edgeRow = gy == cy - ring || gy == cy + ring;
+                int step = edgeRow ? 1 : 2 * ring; // Inner rows only contribute their two border cells
+                for (int gx = cx - ring; gx <= cx + ring; gx += step) {
+                    if (gx < 0 || gx >= cols) continue;
+                    int c = cell(gx, gy);
+                    for (int s = cellStart[c]; s < cellStart[c + 1]; s++) {
+                        int p = cellItems[s];
+                        if (p == i) continue;
+                        double dx = x[p] - x[i], dy = y[p] - y[i];
+                        double dist = dx * dx + dy * dy;
+                        if (size < k) {
+                            heapIds[size] = p;
+                            heapDist[size] = dist;
+                            siftUp(heapIds, heapDist, size++);
+                        } else if (dist < heapDist[0]) {
+                            heapIds[0] = p;
+                            heapDist[0] = dist;
+                            siftDown(heapIds, heapDist, size);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Pop the heap from worst to best to get ascending order
+        int[] result = new int[size];
+        for (int r = size - 1; r >= 0; r--) {
+            result[r] = heapIds[0];
+            heapIds[0] = heapIds[r];
+            heapDist[0] = heapDist[r];
+            siftDown(heapIds, heapDist, r);
+        }
+        return result;
+    }
+
+    private int col(double px) {
+        return Math.min(cols - 1, (int) ((px - minX) / cellSize));
+    }
+
+    private int row(double py) {
+        return Math.min(rows - 1, (int) ((py - minY) / cellSize));
+    }
+
+    private int cell(int gx, int gy) {
+        return gy * cols + gx;
+    }
+
+    private static void siftUp(int[] ids, double[] dist, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (dist[parent] >= dist[i]) break;
+            swap(ids, dist, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] ids, double[] dist, int size) {
+        int i = 0;
+        while (true) {
+            int largest = i, l = 2 * i + 1, r = l + 1;
+            if (l < size && dist[l] > dist[largest]) largest = l;
+            if (r < size && dist[r] > dist[largest]) largest = r;
+            if (largest == i) return;
+            swap(ids, dist, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(int[] ids, double[] dist, int a, int b) {
+        int t = ids[a];
+        ids[a] = ids[b];
+        ids[b] = t;
+        double d = dist[a];
+        dist[a] = dist[b];
+        dist[b] = d;
+    }
+}
\ No newline at end of file
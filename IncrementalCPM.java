@@ -0,0 +1,247 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Incremental CPM for the project graph built by analyzeCPM():
+// Project_Start -> one chain of activities per vehicle -> Project_End.
+// Because every vehicle chain is a straight sequence between the same start and end node:
+// - ES/EF of an activity only depend on the activities before it in its own chain, so a change at
+//   position p only re-propagates EF for positions p.. of that chain (downstream);
+// - all activities of a chain share the same slack (projectDuration - chain duration), so LS/LF upstream
+//   are EF/ES plus that slack and need no pass of their own;
+// - the project duration is the longest chain, and the critical path is that chain.
+// Updates only mark a chain dirty from the first changed position; the next query re-propagates the
+// dirty chains once, so a move that removes, inserts and retimes activities in two chains costs two
+// partial passes. The three longest chains are kept up to date from the chains that changed (a full
+// rescan only when one of them got shorter), so a solver can ask "what would the makespan be if these
+// one or two chains had these durations" in O(1) while evaluating moves, and the critical chains are
+// read from them unless three or more chains tie.
+class IncrementalCPM {
+    private static final int CLEAN = Integer.MAX_VALUE;
+    private static final double EPS = 0.001; // Same tolerance as CPMCalculator for zero slack
+
+    private final double[][] duration;    // duration[v][p] of the p-th activity in vehicle v's chain
+    private final double[][] earlyFinish; // earlyFinish[v][p] = sum of duration[v][0..p]
+    private final int[] size;
+    private final double[] chainEnd;      // EF of the last activity of each chain as of the last propagation
+    private final int[] dirtyFrom;        // First position of chain v whose EF is stale; CLEAN if none
+    private final int[] dirty;            // Chains with stale EF, dirtyCount of them
+    private int dirtyCount;
+    private final int[] top = {-1, -1, -1}; // The three longest chains, longest first
+
+    public IncrementalCPM(int vehicleCount) {
+        duration = new double[vehicleCount][8];
+        earlyFinish = new double[vehicleCount][8];
+        size = new int[vehicleCount];
+        chainEnd = new double[vehicleCount];
+        dirtyFrom = new int[vehicleCount];
+        Arrays.fill(dirtyFrom, CLEAN);
+        dirty = new int[vehicleCount];
+        rescanTop();
+    }
+
+    // Chains equivalent to the activities created by analyzeCPM() (ActivityGraph.fromRoutes): a travel
+    // activity per route leg, taken at its departure time, followed by a service activity when the next
+    // point is a customer with service time
+    public static IncrementalCPM fromRoutes(List<List<Integer>> vehicleRoutes, TravelTimeMatrix travelTimes,
+                                            List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex) {
+        IncrementalCPM cpm = new IncrementalCPM(vehicleRoutes.size());
+        for (int v = 0; v < vehicleRoutes.size(); v++) {
+            double[] durations = activityDurations(vehicleRoutes.get(v), travelTimes, geoPoints, depotIndex);
+            for (int p = 0; p < durations.length; p++) {
+                cpm.insert(v, p, durations[p]);
+            }
+        }
+        return cpm;
+    }
+
+    // Durations of the activities fromRoutes() creates for one route, in chain order
+    static double[] activityDurations(List<Integer> route, TravelTimeMatrix travelTimes,
+                                      List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex) {
+        double[] legs = TravelTimeMatrix.legTimes(travelTimes, route, geoPoints, depotIndex);
+        double[] durations = new double[2 * legs.length];
+        int count = 0;
+        for (int j = 0; j < legs.length; j++) {
+            int next = route.get(j + 1);
+            durations[count++] = legs[j];
+            double service = geoPoints.get(next).serviceDuration;
+            if (next != depotIndex && service > 0) {
+                durations[count++] = service;
+            }
+        }
+        return Arrays.copyOf(durations, count);
+    }
+
+    // --- Updates ---
+
+    public void insert(int v, int pos, double activityDuration) {
+        if (duration[v].length == size[v]) {
+            int newCapacity = size[v] * 2;
+            duration[v] = Arrays.copyOf(duration[v], newCapacity);
+            earlyFinish[v] = Arrays.copyOf(earlyFinish[v], newCapacity);
+        }
+        System.arraycopy(duration[v], pos, duration[v], pos + 1, size[v] - pos);
+        duration[v][pos] = activityDuration;
+        size[v]++;
+        markDirty(v, pos);
+    }
+
+    public void remove(int v, int pos) {
+        System.arraycopy(duration[v], pos + 1, duration[v], pos, size[v] - pos - 1);
+        size[v]--;
+        markDirty(v, pos);
+    }
+
+    public void setDuration(int v, int pos, double activityDuration) {
+        if (duration[v][pos] != activityDuration) {
+            duration[v][pos] = activityDuration;
+            markDirty(v, pos);
+        }
+    }
+
+    // --- Queries ---
+
+    public int chainCount() { return size.length; }
+    public int chainSize(int v) { return size[v]; }
+    public double getDuration(int v, int pos) { return duration[v][pos]; }
+
+    public double chainDuration(int v) {
+        if (dirtyCount > 0) propagate();
+        return durationOf(v);
+    }
+
+    public double getProjectDuration() {
+        if (dirtyCount > 0) propagate();
+        return durationOf(top[0]);
+    }
+
+    public double getEarlyFinish(int v, int pos) {
+        if (dirtyCount > 0) propagate();
+        return earlyFinish[v][pos];
+    }
+
+    public double getEarlyStart(int v, int pos) {
+        return getEarlyFinish(v, pos) - duration[v][pos];
+    }
+
+    // Total float of every activity in chain v
+    public double getSlack(int v) {
+        if (dirtyCount > 0) propagate();
+        return durationOf(top[0]) - durationOf(v);
+    }
+
+    public double getLateFinish(int v, int pos) {
+        return getEarlyFinish(v, pos) + getSlack(v);
+    }
+
+    public double getLateStart(int v, int pos) {
+        return getEarlyStart(v, pos) + getSlack(v);
+    }
+
+    // Chains with zero slack, ascending; with Project_Start/End they form the critical path. O(1) from the
+    // longest chains, O(chainCount) when all of them tie.
+    public List<Integer> getCriticalChains() {
+        if (dirtyCount > 0) propagate();
+        List<Integer> critical = new ArrayList<>();
+        int t = 0;
+        while (t < top.length && top[t] != -1 && getSlack(top[t]) < EPS) {
+            critical.add(top[t++]);
+        }
+        if (t == top.length) { // Chains outside the top list may tie as well
+            critical.clear();
+            for (int v = 0; v < size.length; v++) {
+                if (getSlack(v) < EPS) critical.add(v);
+            }
+        }
+        critical.sort(null);
+        return critical;
+    }
+
+    // Project duration if chain v had the given duration, all other chains unchanged. O(1).
+    public double projectDurationWith(int v, double newDuration) {
+        if (dirtyCount > 0) propagate();
+        double others = top[0] != v ? durationOf(top[0]) : durationOf(top[1]);
+        return Math.max(newDuration, others);
+    }
+
+    // Project duration if chains v1 and v2 (v1 != v2) had the given durations. O(1).
+    public double projectDurationWith(int v1, double newDuration1, int v2, double newDuration2) {
+        if (dirtyCount > 0) propagate();
+        double others = 0;
+        for (int t : top) {
+            if (t != v1 && t != v2) {
+                others = durationOf(t);
+                break;
+            }
+        }
+        return Math.max(others, Math.max(newDuration1, newDuration2));
+    }
+
+    // --- Internals ---
+
+    private void markDirty(int v, int pos) {
+        if (dirtyFrom[v] == CLEAN) dirty[dirtyCount++] = v;
+        dirtyFrom[v] = Math.min(dirtyFrom[v], pos);
+    }
+
+    // Recompute EF downstream of dirtyFrom in every dirty chain, then update the longest chains
+    private void propagate() {
+        boolean rescan = false;
+        for (int k = 0; k < dirtyCount; k++) {
+            int v = dirty[k];
+            double[] d = duration[v], ef = earlyFinish[v];
+            int pos = dirtyFrom[v];
+            double running = pos == 0 ? 0 : ef[pos - 1];
+            for (int p = pos; p < size[v]; p++) {
+                running += d[p];
+                ef[p] = running;
+            }
+            dirtyFrom[v] = CLEAN;
+            double before = chainEnd[v];
+            chainEnd[v] = size[v] == 0 ? 0 : ef[size[v] - 1];
+            rescan |= chainEnd[v] < before && (v == top[0] || v == top[1] || v == top[2]);
+        }
+        if (rescan) {
+            rescanTop();
+        } else {
+            for (int k = 0; k < dirtyCount; k++) {
+                promote(dirty[k]);
+            }
+        }
+        dirtyCount = 0;
+    }
+
+    // Chain v did not get shorter: move it up the top list if it now outranks a member
+    private void promote(int v) {
+        int t = 0;
+        while (t < top.length && top[t] != v) t++;
+        if (t == top.length) {
+            if (top[t - 1] != -1 && durationOf(v) <= durationOf(top[t - 1])) return;
+            t--;
+            top[t] = v;
+        }
+        for (; t > 0 && (top[t - 1] == -1 || durationOf(v) > durationOf(top[t - 1])); t--) {
+            top[t] = top[t - 1];
+            top[t - 1] = v;
+        }
+    }
+
+    // O(chainCount): only after a change shortened one of the longest chains
+    private void rescanTop() {
+        Arrays.fill(top, -1);
+        for (int v = 0; v < size.length; v++) {
+            double dv = durationOf(v);
+            for (int t = 0; t < top.length; t++) {
+                if (top[t] == -1 || dv > durationOf(top[t])) {
+                    System.arraycopy(top, t, top, t + 1, top.length - t - 1);
+                    top[t] = v;
+                    break;
+                }
+            }
+        }
+    }
+
+    private double durationOf(int v) {
+        return v == -1 ? 0 : chainEnd[v];
+    }
+}
\ No newline at end of file
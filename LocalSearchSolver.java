@@ -0,0 +1,906 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+
+// Construction + local search VRP solver.
+// 1. Construction: Clarke-Wright savings (merge until one route per vehicle remains, with a route
+//    duration limit so the work is shared out evenly) or farthest-first cheapest insertion.
+// 2. Improvement: 2-opt and or-opt inside a route, relocate and exchange between routes,
+//    repeated until no improving move is left (first-improvement sweeps). No move may take a route
+//    above the same balanced limit, so travel is not saved by handing one vehicle all the work.
+// Every move is evaluated in O(1) from the travel times of the edges it adds/removes;
+// only improving moves are applied to the route arrays.
+// When the travel time store also provides NeighborLists (see NeighborTravelTimes), savings only
+// considers candidate pairs and every move must create an edge between a customer and one of its
+// candidates (granular neighbourhoods), so a sweep costs O(n*k) instead of O(n^2).
+// Objective: total route duration plus makespanWeight * project duration (the longest route, i.e. the
+// CPM project duration of analyzeCPM()); DEFAULT_MAKESPAN_WEIGHT unless given, 0 for travel only.
+// The makespan term is kept up to date with IncrementalCPM, so a move is still scored in O(1).
+// Given the vehicles, route r is driven by vehicles.get(r): savings only joins routes whose load fits
+// every vehicle's capacity and whose duration fits every shift, cheapest insertion prefers routes with
+// room, and no improving move may create or worsen a capacity or shift-length violation. Time windows
+// are not looked at (ParallelSearchSolver handles them).
+// stopWhen() ends construction and local search early: the routes are complete but less improved.
+// Not thread-safe: use one instance per concurrent solve.
+class LocalSearchSolver implements RouteSolver {
+
+    enum Construction { SAVINGS, CHEAPEST_INSERTION }
+
+    private static final double EPS = 1e-9;
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+    private static final double BALANCE_SLACK = 0.1; // Route limit above the balanced share of the work
+    private static final double OVERLOAD_PENALTY = 1000; // Per unit of demand above capacity, cheapest insertion
+    private static final int MAX_SAVINGS_PAIRS = Integer.MAX_VALUE - 8; // Largest Java array
+    private static final int STOP_CHECK_MASK = 1023; // Poll stop once per 1024 steps of the cheap O(1) loops
+    // Default weight of the project duration in the objective: on random instances of 1,000-20,000
+    // points it lowers the makespan by 1-6% for 1-5% more travel, at the same solve time
+    static final double DEFAULT_MAKESPAN_WEIGHT = 2;
+
+    private final Construction construction;
+    private final double makespanWeight;
+
+    private TravelTimeMatrix travelTimes;
+    private NeighborLists candidates; // null = full neighbourhoods
+    private int depot;
+    private int[][] routes; // Customers per vehicle; the depot is implicit at both ends
+    private int[] len;      // Number of customers in each route
+    private int[] routeOf;  // Route of each customer
+    private int[] posOf;    // Position of each customer inside its route
+    private double[] service;
+    private double[] demand;
+    private double[] duration;   // Travel plus service per route
+    private double[] load;       // Demand per route
+    private double[] capacity, shiftLength; // Of the vehicle driving each route; infinite without vehicles
+    private double[] routeLimit; // No move may take a route above this duration (or lengthen one that is)
+    private IncrementalCPM cpm; // One activity per route leg: travel into a point + its service; null if unused
+    private boolean[] active;   // Don't-look bits of the granular search; null for full neighbourhoods
+    private long movesEvaluated;
+    private BooleanSupplier stop = () -> false;
+
+    public LocalSearchSolver() {
+        this(Construction.SAVINGS);
+    }
+
+    public LocalSearchSolver(Construction construction) {
+        this(construction, DEFAULT_MAKESPAN_WEIGHT);
+    }
+
+    public LocalSearchSolver(Construction construction, double makespanWeight) {
+        this.construction = construction;
+        this.makespanWeight = makespanWeight;
+    }
+
+    // Polled between moves; once it returns true, construction finishes the routes the cheap way and
+    // local search returns. Used by ParallelSearchSolver to keep its time budget.
+    LocalSearchSolver stopWhen(BooleanSupplier stop) {
+        this.stop = stop;
+        return this;
+    }
+
+    @Override
+    public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                     int depotIndex, int vehicleCount) {
+        return solve(travelTimes, geoPoints, depotIndex, vehicleCount, null);
+    }
+
+    @Override
+    public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                     int depotIndex, List<Vehicle> vehicles) {
+        return solve(travelTimes, geoPoints, depotIndex, vehicles.size(), vehicles);
+    }
+
+    private List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                      int depotIndex, int vehicleCount, List<Vehicle> vehicles) {
+        setUp(travelTimes, geoPoints, depotIndex, vehicleCount, vehicles);
+        int n = geoPoints.size();
+        if (construction == Construction.SAVINGS) {
+            buildSavings(n);
+        } else {
+            buildCheapestInsertion(n);
+        }
+        localSearch(true);
+
+        List<List<Integer>> result = new ArrayList<>();
+        for (int v = 0; v < vehicleCount; v++) {
+            List<Integer> route = new ArrayList<>(len[v] + 2);
+            route.add(depot);
+            for (int p = 0; p < len[v]; p++) {
+                route.add(routes[v][p]);
+            }
+            route.add(depot);
+            result.add(route);
+        }
+        return result;
+    }
+
+    // Local search only, starting from the given routes (customers per vehicle, no depot; route r holds
+    // startLen[r] customers). The improved routes are written back: rows of startRoutes may be replaced
+    // by larger arrays and startLen is updated. Used to polish solutions found by ParallelSearchSolver,
+    // so the routes are not held to the balanced route limit: the caller's objective decides. With
+    // vehicles (null = unlimited) no move creates or worsens a capacity or shift-length violation.
+    void improve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex,
+                 int[][] startRoutes, int[] startLen, List<Vehicle> vehicles) {
+        setUp(travelTimes, geoPoints, depotIndex, startRoutes.length, vehicles);
+        for (int r = 0; r < routes.length; r++) {
+            routes[r] = Arrays.copyOf(startRoutes[r], Math.max(4, startLen[r]));
+            len[r] = startLen[r];
+            for (int p = 0; p < len[r]; p++) {
+                routeOf[routes[r][p]] = r;
+                posOf[routes[r][p]] = p;
+            }
+        }
+        localSearch(false);
+        for (int r = 0; r < routes.length; r++) {
+            startRoutes[r] = routes[r];
+            startLen[r] = len[r];
+        }
+    }
+
+    private void setUp(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                       int depotIndex, int vehicleCount, List<Vehicle> vehicles) {
+        if (vehicles != null && vehicles.size() != vehicleCount) {
+            throw new IllegalArgumentException(vehicles.size() + " vehicles for " + vehicleCount + " routes");
+        }
+        this.travelTimes = travelTimes;
+        this.candidates = travelTimes instanceof NeighborLists ? (NeighborLists) travelTimes : null;
+        this.depot = depotIndex;
+        int n = geoPoints.size();
+        routes = new int[vehicleCount][];
+        len = new int[vehicleCount];
+        routeOf = new int[n];
+        posOf = new int[n];
+        service = new double[n];
+        demand = new double[n];
+        for (int i = 0; i < n; i++) {
+            service[i] = i == depot ? 0 : geoPoints.get(i).serviceDuration;
+            demand[i] = i == depot ? 0 : geoPoints.get(i).demand;
+        }
+        load = new double[vehicleCount];
+        capacity = new double[vehicleCount];
+        shiftLength = new double[vehicleCount];
+        for (int r = 0; r < vehicleCount; r++) {
+            Vehicle vehicle = vehicles == null ? Vehicle.UNLIMITED : vehicles.get(r);
+            capacity[r] = vehicle.capacity;
+            shiftLength[r] = vehicle.shiftLength;
+        }
+        cpm = null;
+        active = null;
+        movesEvaluated = 0;
+    }
+
+    // Improvement phase on the constructed routes. Minimising travel alone moves customers into whichever
+    // route is closest until a few vehicles do all the work, so with balance every route is kept within
+    // BALANCE_SLACK above the balanced share (total duration / vehicles) of the constructed plan.
+    // A vehicle's shift length caps its route further.
+    private void localSearch(boolean balance) {
+        duration = new double[len.length];
+        double total = 0;
+        for (int r = 0; r < len.length; r++) {
+            load[r] = 0;
+            for (int p = 0; p <= len[r]; p++) {
+                duration[r] += leg(r, p);
+                load[r] += demand[at(r, p)];
+            }
+            total += duration[r];
+        }
+        double balanced = balance ? total / len.length * (1 + BALANCE_SLACK) : Double.POSITIVE_INFINITY;
+        routeLimit = new double[len.length];
+        for (int r = 0; r < len.length; r++) {
+            routeLimit[r] = Math.min(balanced, shiftLength[r]);
+        }
+        if (makespanWeight > 0) {
+            cpm = new IncrementalCPM(len.length);
+            for (int r = 0; r < len.length; r++) {
+                for (int p = 0; p <= len[r]; p++) {
+                    cpm.insert(r, p, leg(r, p));
+                }
+            }
+        }
+        if (candidates != null) {
+            improveGranular();
+        } else {
+            improve();
+        }
+    }
+
+    @Override
+    public long movesEvaluated() {
+        return movesEvaluated;
+    }
+
+    // Total travel time of the current routes (depot -> customers -> depot)
+    double totalTravelTime() {
+        double total = 0;
+        for (int r = 0; r < len.length; r++) {
+            for (int p = 0; p <= len[r]; p++) {
+                total += travelTimes.get(at(r, p - 1), at(r, p));
+            }
+        }
+        return total;
+    }
+
+    // Travel into position p of route r plus the service there (p == len[r] is the return to the depot)
+    private double leg(int r, int p) {
+        int node = at(r, p);
+        return travelTimes.get(at(r, p - 1), node) + service[node];
+    }
+
+    // Objective change of a move that changes the duration of route r1 by delta1 and, for moves
+    // between routes, route r2 by delta2 and moves `moved` demand from r1 to r2 (r2 = -1 for moves
+    // inside one route); infinite when the move takes a route over its routeLimit or capacity
+    private double score(int r1, double delta1, int r2, double delta2, double moved) {
+        movesEvaluated++;
+        if (overLimit(r1, delta1) || (r2 >= 0 && overLimit(r2, delta2))) return Double.POSITIVE_INFINITY;
+        if (r2 >= 0 && (overCapacity(r2, moved) || overCapacity(r1, -moved))) return Double.POSITIVE_INFINITY;
+        double score = delta1 + delta2;
+        if (cpm != null) {
+            double makespan = r2 < 0
+                    ? cpm.projectDurationWith(r1, cpm.chainDuration(r1) + delta1)
+                    : cpm.projectDurationWith(r1, cpm.chainDuration(r1) + delta1, r2, cpm.chainDuration(r2) + delta2);
+            score += makespanWeight * (makespan - cpm.getProjectDuration());
+        }
+        return score;
+    }
+
+    private boolean overLimit(int r, double delta) {
+        return delta > 0 && duration[r] + delta > routeLimit[r];
+    }
+
+    private boolean overCapacity(int r, double added) {
+        return added > 0 && load[r] + added > capacity[r];
+    }
+
+    // True when the move scores as an improvement. Every caller then applies it, so the route durations
+    // are updated here (the loads by insert/remove/swap).
+    private boolean improves(int r1, double delta1, int r2, double delta2, double moved) {
+        if (score(r1, delta1, r2, delta2, moved) >= -EPS) return false;
+        duration[r1] += delta1;
+        if (r2 >= 0) duration[r2] += delta2;
+        return true;
+    }
+
+    private boolean improves(int r, double delta) {
+        return improves(r, delta, -1, 0, 0);
+    }
+
+    // Node at position p of route r; positions outside the route are the depot
+    private int at(int r, int p) {
+        return p < 0 || p >= len[r] ? depot : routes[r][p];
+    }
+
+    // --- Construction: Clarke-Wright savings ---
+    // Merging until only vehicleCount routes are left lets the biggest route absorb nearly every customer,
+    // so a merge must also keep the joined route within a duration limit. A first pass without limit gives
+    // the total duration T of a plan with vehicleCount routes; the real pass starts at the balanced share
+    // T / vehicleCount * (1 + BALANCE_SLACK) and raises the limit by that factor while too many routes are left.
+    // Routes are only assigned to vehicles at the end, so a join must also fit the smallest capacity and
+    // the shortest shift of the fleet.
+    private void buildSavings(int n) {
+        int vehicleCount = len.length;
+
+        // Sort savings s(i,j) = d(0,i) + d(0,j) - d(i,j) descending. Pair number k is (first[k], second[k]);
+        // each key packs an order-preserving encoding of -s in the high 32 bits and k in the low 32 bits, so
+        // a primitive sort is enough. With candidate lists only (i, neighbour) pairs are used.
+        long pairs;
+        if (candidates == null) {
+            pairs = Math.max(0, (long) (n - 1) * (n - 2) / 2);
+        } else {
+            pairs = 0;
+            for (int i = 0; i < n; i++) {
+                pairs += candidates.neighborCount(i);
+            }
+        }
+        if (pairs > MAX_SAVINGS_PAIRS) {
+            throw new IllegalArgumentException(pairs + " savings pairs for " + n
+                    + " points; use travel times with NeighborLists (see VRPSolver.buildTravelTimes)");
+        }
+        long[] keys = new long[(int) pairs];
+        int[] first = new int[(int) pairs], second = new int[(int) pairs];
+        int k = 0;
+        for (int i = 0; i < n && !stop.getAsBoolean(); i++) { // Stopped: merge the pairs enumerated so far
+            if (i == depot) continue;
+            if (candidates == null) {
+                for (int j = i + 1; j < n; j++) {
+                    if (j == depot) continue;
+                    first[k] = i;
+                    second[k] = j;
+                    keys[k] = savingsKey(i, j, k);
+                    k++;
+                }
+            } else {
+                for (int r = 0; r < candidates.neighborCount(i); r++) {
+                    int j = candidates.neighbor(i, r);
+                    if (j == depot) continue;
+                    first[k] = i;
+                    second[k] = j;
+                    keys[k] = savingsKey(i, j, k);
+                    k++;
+                }
+            }
+        }
+        keys = sortKeys(keys, k);
+
+        Savings unbounded = new Savings(n);
+        unbounded.merge(keys, first, second, k, Double.POSITIVE_INFINITY);
+        double limit = unbounded.totalDuration() / vehicleCount * (1 + BALANCE_SLACK);
+        Savings savings = new Savings(n);
+        while (true) {
+            savings.merge(keys, first, second, k, limit);
+            // Once the limit exceeds the total duration it no longer rejects anything
+            if (savings.routeCount <= vehicleCount || limit >= savings.totalDuration() || stop.getAsBoolean()) break;
+            limit *= 1 + BALANCE_SLACK;
+        }
+        savings.joinShortest();
+
+        int v = 0;
+        for (int c = 0; c < n; c++) {
+            if (c != depot && savings.routeId[c] == c) {
+                routes[v] = new int[savings.size[c] + 1];
+                for (int node = savings.head[c]; node != -1; node = savings.next[node]) {
+                    place(v, len[v]++, node);
+                }
+                v++;
+            }
+        }
+        for (; v < vehicleCount; v++) {
+            routes[v] = new int[1];
+        }
+    }
+
+    // Routes of the savings construction: doubly linked lists of customers, each route identified by one
+    // of its customers (routeId[c] == c for that customer)
+    private final class Savings {
+        final int[] next, prev, head, tail, size, routeId;
+        final double[] duration; // Travel plus service, depot to depot
+        final double[] load;
+        final double maxLoad, maxDuration; // Smallest capacity and shift of the fleet
+        int routeCount;
+
+        Savings(int n) {
+            next = new int[n];
+            prev = new int[n];
+            head = new int[n];
+            tail = new int[n];
+            size = new int[n];
+            routeId = new int[n];
+            duration = new double[n];
+            load = new double[n];
+            maxLoad = Arrays.stream(capacity).min().orElse(Double.POSITIVE_INFINITY);
+            maxDuration = Arrays.stream(shiftLength).min().orElse(Double.POSITIVE_INFINITY);
+            Arrays.fill(next, -1);
+            Arrays.fill(prev, -1);
+            for (int c = 0; c < n; c++) {
+                if (c != depot) { // Each customer starts in its own route
+                    routeId[c] = c;
+                    head[c] = c;
+                    tail[c] = c;
+                    size[c] = 1;
+                    duration[c] = travelTimes.get(depot, c) + service[c] + travelTimes.get(c, depot);
+                    load[c] = demand[c];
+                    routeCount++;
+                }
+            }
+        }
+
+        double totalDuration() {
+            double total = 0;
+            for (int c = 0; c < routeId.length; c++) {
+                if (c != depot && routeId[c] == c) total += duration[c];
+            }
+            return total;
+        }
+
+        // Joins routes along the sorted savings while more routes than vehicles are left, as long as the
+        // joined route stays within limit and fits every vehicle
+        void merge(long[] keys, int[] first, int[] second, int count, double limit) {
+            TravelTimeMatrix d = travelTimes;
+            for (int s = 0; s < count && routeCount > len.length; s++) {
+                if ((s & STOP_CHECK_MASK) == 0 && stop.getAsBoolean()) break;
+                int pair = (int) keys[s];
+                int i = first[pair], j = second[pair];
+                int ri = routeId[i], rj = routeId[j];
+                if (ri == rj) continue;
+                if ((head[ri] != i && tail[ri] != i) || (head[rj] != j && tail[rj] != j)) continue; // Not endpoints
+                double joined = duration[ri] + duration[rj] - d.get(depot, i) - d.get(depot, j) + d.get(i, j);
+                if (joined > Math.min(limit, maxDuration) || load[ri] + load[rj] > maxLoad) continue;
+
+                // Join the routes through the edge (i, j). Travel times are symmetric, so either route may be
+                // reversed: reverse and relabel only the smaller one, which keeps construction O(n log n).
+                int big = size[ri] >= size[rj] ? ri : rj, small = big == ri ? rj : ri;
+                int bigEnd = big == ri ? i : j, smallEnd = big == ri ? j : i;
+                int relabel;
+                if (tail[big] == bigEnd) { // Append small after big, starting at smallEnd
+                    if (head[small] != smallEnd) reverse(small);
+                    next[bigEnd] = smallEnd;
+                    prev[smallEnd] = bigEnd;
+                    tail[big] = tail[small];
+                    relabel = smallEnd;
+                } else {                   // Prepend small before big, ending at smallEnd
+                    if (tail[small] != smallEnd) reverse(small);
+                    next[smallEnd] = bigEnd;
+                    prev[bigEnd] = smallEnd;
+                    head[big] = head[small];
+                    relabel = head[small];
+                }
+                for (int c = relabel, left = size[small]; left > 0; c = next[c], left--) {
+                    routeId[c] = big;
+                }
+                size[big] += size[small];
+                duration[big] = joined;
+                load[big] += load[small];
+                routeCount--;
+            }
+        }
+
+        // Sparse savings, full vehicles or an early stop may leave more routes than vehicles: chain the two shortest
+        // routes, end to start, until the routes fit the fleet
+        void joinShortest() {
+            if (routeCount <= len.length) return;
+            PriorityQueue<Integer> shortest = new PriorityQueue<>(Comparator.comparingDouble((Integer r) -> duration[r]));
+            for (int c = 0; c < routeId.length; c++) {
+                if (c != depot && routeId[c] == c) shortest.add(c);
+            }
+            while (routeCount > len.length) {
+                int a = shortest.poll(), b = shortest.poll();
+                duration[a] += duration[b] - travelTimes.get(tail[a], depot) - travelTimes.get(depot, head[b])
+                        + travelTimes.get(tail[a], head[b]);
+                next[tail[a]] = head[b];
+                prev[head[b]] = tail[a];
+                tail[a] = tail[b];
+                size[a] += size[b];
+                load[a] += load[b];
+                for (int node = head[b]; node != -1; node = next[node]) {
+                    routeId[node] = a;
+                }
+                routeCount--;
+                shortest.add(a);
+            }
+        }
+
+        private void reverse(int r) {
+            for (int c = head[r]; c != -1; ) {
+                int following = next[c];
+                next[c] = prev[c];
+                prev[c] = following;
+                c = following;
+            }
+            int h = head[r];
+            head[r] = tail[r];
+            tail[r] = h;
+        }
+    }
+
+    // Stable LSD radix sort of keys[0..count) by their high 32 bits, in two 16-bit passes. The pair numbers
+    // in the low bits were handed out in ascending order, so the result is the same as Arrays.sort, in a
+    // fraction of the time; and unlike Arrays.sort it can stop between the passes (the keys are then in a
+    // valid, only less useful order). Returns the array that holds the result.
+    private long[] sortKeys(long[] keys, int count) {
+        long[] from = keys, to = new long[count];
+        int[] start = new int[1 << 16];
+        for (int shift = 32; shift < 64; shift += 16) {
+            if (stop.getAsBoolean()) break;
+            int flip = shift == 48 ? 0x8000 : 0; // Signed order of the top digit
+            Arrays.fill(start, 0);
+            for (int i = 0; i < count; i++) {
+                start[((int) (from[i] >>> shift) & 0xFFFF) ^ flip]++;
+            }
+            for (int b = 0, sum = 0; b < start.length; b++) {
+                int size = start[b];
+                start[b] = sum;
+                sum += size;
+            }
+            for (int i = 0; i < count; i++) {
+                to[start[((int) (from[i] >>> shift) & 0xFFFF) ^ flip]++] = from[i];
+            }
+            long[] swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+
+    private long savingsKey(int i, int j, int pair) {
+        TravelTimeMatrix d = travelTimes;
+        float saving = (float) (d.get(depot, i) + d.get(depot, j) - d.get(i, j));
+        return ((long) sortableBits(-saving) << 32) | pair;
+    }
+
+    // Maps a float to an int whose signed ordering matches the float ordering
+    static int sortableBits(float f) {
+        int bits = Float.floatToIntBits(f);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+
+    // --- Construction: farthest-first cheapest insertion ---
+    private void buildCheapestInsertion(int n) {
+        TravelTimeMatrix d = travelTimes;
+        int vehicleCount = len.length;
+        Integer[] order = new Integer[n - 1];
+        int k = 0;
+        for (int c = 0; c < n; c++) {
+            if (c != depot) order[k++] = c;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(d.get(depot, b), d.get(depot, a)));
+        for (int r = 0; r < vehicleCount; r++) {
+            routes[r] = new int[16];
+        }
+
+        Arrays.fill(routeOf, -1); // Not routed yet
+        for (int idx = 0; idx < order.length; idx++) {
+            int c = order[idx];
+            if (idx < vehicleCount) { // Seed each vehicle with one of the farthest customers
+                insert(idx, 0, c);
+                continue;
+            }
+            if (stop.getAsBoolean()) { // Out of time: deal the rest out to the route ends
+                insert(idx % vehicleCount, len[idx % vehicleCount], c);
+                continue;
+            }
+            bestRoute = -1;
+            bestPos = -1;
+            bestCost = Double.POSITIVE_INFINITY;
+            if (candidates == null) {
+                for (int r = 0; r < vehicleCount; r++) {
+                    for (int p = 0; p <= len[r]; p++) {
+                        tryInsertion(c, r, p);
+                    }
+                }
+            } else {
+                // Only gaps next to a routed candidate, or next to the depot
+                for (int rank = 0; rank < candidates.neighborCount(c); rank++) {
+                    int m = candidates.neighbor(c, rank);
+                    if (m != depot && routeOf[m] != -1) {
+                        tryInsertion(c, routeOf[m], posOf[m]);
+                        tryInsertion(c, routeOf[m], posOf[m] + 1);
+                    }
+                }
+                for (int r = 0; r < vehicleCount; r++) {
+                    tryInsertion(c, r, 0);
+                    tryInsertion(c, r, len[r]);
+                }
+            }
+            insert(bestRoute, bestPos, c);
+        }
+    }
+
+    // Best insertion found so far by tryInsertion()
+    private int bestRoute, bestPos;
+    private double bestCost;
+
+    // Routes whose vehicle has no room left for c only win when no route has
+    private void tryInsertion(int c, int r, int p) {
+        TravelTimeMatrix d = travelTimes;
+        int u = at(r, p - 1), w = at(r, p);
+        double cost = d.get(u, c) + d.get(c, w) - d.get(u, w);
+        if (overCapacity(r, demand[c])) cost += OVERLOAD_PENALTY * Math.min(demand[c], load[r] + demand[c] - capacity[r]);
+        if (cost < bestCost) {
+            bestCost = cost;
+            bestRoute = r;
+            bestPos = p;
+        }
+    }
+
+    // --- Local search ---
+    private void improve() {
+        boolean improved = true;
+        while (improved && !stop.getAsBoolean()) {
+            improved = false;
+            for (int r = 0; r < len.length; r++) {
+                improved |= twoOpt(r);
+                improved |= orOpt(r);
+            }
+            improved |= relocate();
+            improved |= exchange();
+        }
+    }
+
+    // Reverse route[i..j]
+    private boolean twoOpt(int r) {
+        TravelTimeMatrix d = travelTimes;
+        int[] a = routes[r];
+        boolean improved = false;
+        for (int i = 0; i < len[r] - 1 && !stop.getAsBoolean(); i++) {
+            int before = at(r, i - 1);
+            for (int j = i + 1; j < len[r]; j++) {
+                int after = at(r, j + 1);
+                double delta = d.get(before, a[j]) + d.get(a[i], after) - d.get(before, a[i]) - d.get(a[j], after);
+                if (improves(r, delta)) {
+                    reverseSegment(r, i, j);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Move a segment of 1..MAX_OR_OPT_SEGMENT customers to another gap of the same route
+    private boolean orOpt(int r) {
+        TravelTimeMatrix d = travelTimes;
+        int[] a = routes[r];
+        boolean improved = false;
+        for (int k = 1; k <= MAX_OR_OPT_SEGMENT; k++) {
+            for (int i = 0; i + k <= len[r] && !stop.getAsBoolean(); i++) {
+                int before = at(r, i - 1), after = at(r, i + k);
+                int first = a[i], last = a[i + k - 1];
+                double removeGain = d.get(before, first) + d.get(last, after) - d.get(before, after);
+                for (int g = 0; g <= len[r]; g++) {
+                    if (g >= i && g <= i + k) continue; // Gap touches the segment itself
+                    int u = at(r, g - 1), w = at(r, g);
+                    double delta = d.get(u, first) + d.get(last, w) - d.get(u, w) - removeGain;
+                    if (improves(r, delta)) {
+                        moveSegment(r, i, k, g);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Move one customer to any gap of another route
+    private boolean relocate() {
+        TravelTimeMatrix d = travelTimes;
+        boolean improved = false;
+        for (int r1 = 0; r1 < len.length; r1++) {
+            int i = 0;
+            search:
+            while (i < len[r1]) {
+                if (len[r1] == 1) break; // Keep every vehicle in use
+                if (stop.getAsBoolean()) break;
+                int c = routes[r1][i];
+                int before = at(r1, i - 1), after = at(r1, i + 1);
+                double removeGain = d.get(before, c) + d.get(c, after) - d.get(before, after);
+                for (int r2 = 0; r2 < len.length; r2++) {
+                    if (r2 == r1) continue;
+                    for (int g = 0; g <= len[r2]; g++) {
+                        int u = at(r2, g - 1), w = at(r2, g);
+                        double added = d.get(u, c) + d.get(c, w) - d.get(u, w);
+                        if (improves(r1, -removeGain - service[c], r2, added + service[c], demand[c])) {
+                            remove(r1, i);
+                            insert(r2, g, c);
+                            improved = true;
+                            continue search; // Position i now holds the next customer
+                        }
+                    }
+                }
+                i++;
+            }
+        }
+        return improved;
+    }
+
+    // Swap two customers between different routes
+    private boolean exchange() {
+        boolean improved = false;
+        for (int r1 = 0; r1 < len.length; r1++) {
+            for (int r2 = r1 + 1; r2 < len.length; r2++) {
+                for (int i = 0; i < len[r1] && !stop.getAsBoolean(); i++) {
+                    for (int j = 0; j < len[r2]; j++) {
+                        if (exchangeImproves(r1, i, r2, j)) {
+                            swap(r1, i, r2, j);
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    // --- Granular local search (candidate lists only) ---
+    // Don't-look bits: a customer is examined again only after one of its route edges changed, so the
+    // sweeps after the first one only visit the areas that the previous sweep touched. A move can also
+    // open up elsewhere in a changed route, so the search ends with a sweep over all customers that finds
+    // nothing.
+    private void improveGranular() {
+        active = new boolean[routeOf.length];
+        boolean fullSweep = true;
+        while (true) {
+            if (fullSweep) Arrays.fill(active, true);
+            active[depot] = false;
+            boolean improved = false;
+            for (int c = 0; c < routeOf.length; c++) {
+                if ((c & STOP_CHECK_MASK) == 0 && stop.getAsBoolean()) return;
+                if (!active[c]) continue;
+                active[c] = false;
+                for (int r = 0; r < candidates.neighborCount(c); r++) {
+                    int m = candidates.neighbor(c, r);
+                    if (m == depot) continue;
+                    if (routeOf[m] == routeOf[c]) {
+                        improved |= granularTwoOpt(c, m) || granularOrOpt(c, m);
+                    } else {
+                        improved |= granularRelocate(c, m) || granularExchange(c, m);
+                    }
+                }
+            }
+            if (!improved && fullSweep) break;
+            fullSweep = !improved;
+        }
+    }
+
+    // 2-opt that creates the edge (c, m) inside one route
+    private boolean granularTwoOpt(int c, int m) {
+        TravelTimeMatrix d = travelTimes;
+        int r = routeOf[c], i = posOf[c], j = posOf[m];
+        int[] a = routes[r];
+        double delta;
+        if (j > i + 1) { // ... c, a[i+1] ... m, after ...  ->  ... c, m ... a[i+1], after ...
+            int after = at(r, j + 1);
+            delta = d.get(c, m) + d.get(a[i + 1], after) - d.get(c, a[i + 1]) - d.get(m, after);
+            if (improves(r, delta)) {
+                reverseSegment(r, i + 1, j);
+                return true;
+            }
+        } else if (j < i - 1) { // ... before, m ... a[i-1], c ...  ->  ... before, a[i-1] ... m, c ...
+            int before = at(r, j - 1);
+            delta = d.get(before, a[i - 1]) + d.get(m, c) - d.get(before, m) - d.get(a[i - 1], c);
+            if (improves(r, delta)) {
+                reverseSegment(r, j, i - 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Or-opt that moves a segment starting at c next to m (before or after it) in the same route
+    private boolean granularOrOpt(int c, int m) {
+        int r = routeOf[c], i = posOf[c], j = posOf[m];
+        for (int k = 1; k <= MAX_OR_OPT_SEGMENT && i + k <= len[r]; k++) {
+            if (j >= i && j < i + k) break; // m is inside the segment
+            for (int g = j; g <= j + 1; g++) {
+                if (g >= i && g <= i + k) continue;
+                if (improves(r, orOptDelta(r, i, k, g))) {
+                    moveSegment(r, i, k, g);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Relocate c next to m (before or after it) in m's route
+    private boolean granularRelocate(int c, int m) {
+        TravelTimeMatrix d = travelTimes;
+        int r1 = routeOf[c], i = posOf[c], r2 = routeOf[m], j = posOf[m];
+        if (len[r1] == 1) return false; // Keep every vehicle in use
+        int before = at(r1, i - 1), after = at(r1, i + 1);
+        double removeGain = d.get(before, c) + d.get(c, after) - d.get(before, after);
+        for (int g = j; g <= j + 1; g++) {
+            int u = at(r2, g - 1), w = at(r2, g);
+            double added = d.get(u, c) + d.get(c, w) - d.get(u, w);
+            if (improves(r1, -removeGain - service[c], r2, added + service[c], demand[c])) {
+                remove(r1, i);
+                insert(r2, g, c);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Exchange c with the predecessor or successor of m, so that c ends up next to m
+    private boolean granularExchange(int c, int m) {
+        int r1 = routeOf[c], i = posOf[c], r2 = routeOf[m], j = posOf[m];
+        for (int other = j - 1; other <= j + 1; other += 2) {
+            if (other < 0 || other >= len[r2]) continue;
+            if (exchangeImproves(r1, i, r2, other)) {
+                swap(r1, i, r2, other);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double orOptDelta(int r, int i, int k, int g) {
+        TravelTimeMatrix d = travelTimes;
+        int before = at(r, i - 1), after = at(r, i + k);
+        int first = routes[r][i], last = routes[r][i + k - 1];
+        int u = at(r, g - 1), w = at(r, g);
+        return d.get(u, first) + d.get(last, w) - d.get(u, w)
+             - (d.get(before, first) + d.get(last, after) - d.get(before, after));
+    }
+
+    // Swap route r1 position i with route r2 position j (r1 != r2)
+    private boolean exchangeImproves(int r1, int i, int r2, int j) {
+        TravelTimeMatrix d = travelTimes;
+        int c1 = routes[r1][i], c2 = routes[r2][j];
+        int p1 = at(r1, i - 1), n1 = at(r1, i + 1), p2 = at(r2, j - 1), n2 = at(r2, j + 1);
+        double delta1 = d.get(p1, c2) + d.get(c2, n1) - d.get(p1, c1) - d.get(c1, n1) + service[c2] - service[c1];
+        double delta2 = d.get(p2, c1) + d.get(c1, n2) - d.get(p2, c2) - d.get(c2, n2) + service[c1] - service[c2];
+        return improves(r1, delta1, r2, delta2, demand[c1] - demand[c2]);
+    }
+
+    // --- Route array helpers (keep routeOf/posOf in sync) ---
+    private void place(int r, int p, int c) {
+        routes[r][p] = c;
+        routeOf[c] = r;
+        posOf[c] = p;
+    }
+
+    private void insert(int r, int p, int c) {
+        if (len[r] == routes[r].length) {
+            routes[r] = Arrays.copyOf(routes[r], Math.max(4, len[r] * 2));
+        }
+        System.arraycopy(routes[r], p, routes[r], p + 1, len[r] - p);
+        len[r]++;
+        place(r, p, c);
+        load[r] += demand[c];
+        reindex(r, p + 1, len[r] - 1);
+        if (cpm != null) cpm.insert(r, p, 0);
+        changed(r, p, p + 1);
+    }
+
+    private void remove(int r, int p) {
+        load[r] -= demand[routes[r][p]];
+        System.arraycopy(routes[r], p + 1, routes[r], p, len[r] - p - 1);
+        len[r]--;
+        reindex(r, p, len[r] - 1);
+        if (cpm != null) cpm.remove(r, p);
+        changed(r, p, p);
+    }
+
+    private void swap(int r1, int i, int r2, int j) {
+        int c1 = routes[r1][i];
+        double moved = demand[c1] - demand[routes[r2][j]];
+        load[r1] -= moved;
+        load[r2] += moved;
+        place(r1, i, routes[r2][j]);
+        place(r2, j, c1);
+        changed(r1, i, i + 1);
+        changed(r2, j, j + 1);
+    }
+
+    private void reverseSegment(int r, int i, int j) {
+        int[] a = routes[r];
+        int from = i, to = j;
+        while (i < j) {
+            int t = a[i];
+            a[i++] = a[j];
+            a[j--] = t;
+        }
+        reindex(r, from, to);
+        changed(r, from, to + 1);
+    }
+
+    // Move route[i..i+k-1] so that it sits in gap g (gap g lies between positions g-1 and g)
+    private void moveSegment(int r, int i, int k, int g) {
+        int[] a = routes[r];
+        int[] segment = Arrays.copyOfRange(a, i, i + k);
+        if (g < i) {
+            System.arraycopy(a, g, a, g + k, i - g);
+            System.arraycopy(segment, 0, a, g, k);
+            reindex(r, g, i + k - 1);
+            changed(r, g, i + k);
+        } else {
+            System.arraycopy(a, i + k, a, i, g - i - k);
+            System.arraycopy(segment, 0, a, g - k, k);
+            reindex(r, i, g - 1);
+            changed(r, i, g);
+        }
+    }
+
+    // Legs from..to of route r changed: wake up the customers at both ends of them and refresh their
+    // CPM activity durations (IncrementalCPM re-propagates the route once, at the next query)
+    private void changed(int r, int from, int to) {
+        to = Math.min(to, len[r]);
+        if (active != null) {
+            for (int p = from - 1; p <= to; p++) {
+                active[at(r, p)] = true;
+            }
+            active[depot] = false;
+        }
+        if (cpm == null) return;
+        for (int p = from; p <= to; p++) {
+            cpm.setDuration(r, p, leg(r, p));
+        }
+    }
+
+    private void reindex(int r, int from, int to) {
+        for (int p = from; p <= to; p++) {
+            posOf[routes[r][p]] = p;
+        }
+    }
+}
\ No newline at end of file
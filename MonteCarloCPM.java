@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Stochastic CPM: every activity of an ActivityGraph gets a duration distribution (fixed, triangular or
+// lognormal) and run() evaluates many sampled scenarios, giving percentiles of the project duration and
+// per activity the probability that it is critical (zero slack, same tolerance as CPMCalculator).
+// Scenarios are evaluated in batches of BATCH: durations and times are stored activity-major
+// (row i = BATCH consecutive scenarios), so one forward and one backward pass over the topological order
+// update the whole batch with plain loops over contiguous doubles that the JIT vectorises.
+// Batches run in parallel; batch b always uses the random stream seed + b, so the result does not depend
+// on the number of threads.
+class MonteCarloCPM {
+    static final String SCENARIOS_PROPERTY = "vrp.scenarios"; // e.g. -Dvrp.scenarios=20000
+    static final int BATCH = 64;
+    // Default spread of the route network: travel varies more than service (cv = standard deviation / mean)
+    static final double TRAVEL_CV = 0.3, SERVICE_CV = 0.2;
+
+    private static final byte FIXED = 0, TRIANGULAR = 1, LOGNORMAL = 2;
+    private static final double CRITICAL_TOLERANCE = 0.001;
+
+    private final ActivityGraph graph;
+    private final int[] order;
+    private final byte[] distribution;
+    // FIXED: a = duration; TRIANGULAR: a = min, b = mode, c = max; LOGNORMAL: a = mu, b = sigma of ln(duration)
+    private final double[] a, b, c;
+
+    public MonteCarloCPM(ActivityGraph graph) {
+        this.graph = graph;
+        this.order = graph.topologicalOrder();
+        this.distribution = new byte[graph.size];
+        this.a = Arrays.copyOf(graph.duration, graph.size);
+        this.b = new double[graph.size];
+        this.c = new double[graph.size];
+    }
+
+    // Route network (ActivityGraph.fromRoutes) with lognormal travel and service times around the planned
+    // durations; cv = standard deviation / mean, e.g. 0.3 for travel in city traffic
+    public static MonteCarloCPM forRoutes(ActivityGraph graph, double travelCv, double serviceCv) {
+        MonteCarloCPM monteCarlo = new MonteCarloCPM(graph);
+        for (int i = 0; i < graph.size; i++) {
+            byte kind = graph.kind(i);
+            if (kind == ActivityGraph.TRAVEL) monteCarlo.lognormal(i, graph.duration[i], travelCv);
+            else if (kind == ActivityGraph.SERVICE) monteCarlo.lognormal(i, graph.duration[i], serviceCv);
+        }
+        return monteCarlo;
+    }
+
+    public void fixed(int i, double duration) {
+        distribution[i] = FIXED;
+        a[i] = duration;
+    }
+
+    public void triangular(int i, double min, double mode, double max) {
+        if (!(min <= mode && mode <= max)) {
+            throw new IllegalArgumentException("Triangular distribution of " + graph.name(i)
+                    + " needs min <= mode <= max: " + min + ", " + mode + ", " + max);
+        }
+        if (min == max) {
+            fixed(i, min);
+            return;
+        }
+        distribution[i] = TRIANGULAR;
+        a[i] = min;
+        b[i] = mode;
+        c[i] = max;
+    }
+
+    // Lognormal with the given mean and coefficient of variation
+    public void lognormal(int i, double mean, double cv) {
+        if (mean < 0 || cv < 0) {
+            throw new IllegalArgumentException("Lognormal distribution of " + graph.name(i)
+                    + " needs mean >= 0 and cv >= 0: " + mean + ", " + cv);
+        }
+        if (mean == 0 || cv == 0) {
+            fixed(i, mean);
+            return;
+        }
+        double variance = Math.log(1 + cv * cv);
+        distribution[i] = LOGNORMAL;
+        a[i] = Math.log(mean) - variance / 2;
+        b[i] = Math.sqrt(variance);
+    }
+
+    public ActivityGraph getGraph() {
+        return graph;
+    }
+
+    public Result run(int scenarios, long seed) {
+        if (scenarios <= 0) throw new IllegalArgumentException("Scenario count must be positive: " + scenarios);
+        long start = System.nanoTime();
+        int batches = (scenarios + BATCH - 1) / BATCH;
+        // A few chunks per core for load balance; each chunk reuses one workspace for all of its batches
+        int chunks = Math.min(batches, Runtime.getRuntime().availableProcessors() * 4);
+        double[] projectDurations = new double[scenarios];
+        long[][] criticalCounts = new long[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            Workspace workspace = new Workspace(graph.size);
+            for (int batch = chunk; batch < batches; batch += chunks) {
+                int first = batch * BATCH;
+                workspace.evaluate(new SplittableRandom(seed + batch), projectDurations, first,
+                        Math.min(BATCH, scenarios - first));
+            }
+            criticalCounts[chunk] = workspace.criticalCount;
+        });
+        long[] critical = new long[graph.size];
+        for (long[] counts : criticalCounts) {
+            for (int i = 0; i < critical.length; i++) {
+                critical[i] += counts[i];
+            }
+        }
+        Arrays.sort(projectDurations);
+        return new Result(graph, projectDurations, critical, System.nanoTime() - start);
+    }
+
+    // Per-thread buffers for one batch; row i of a matrix is [i * BATCH, (i + 1) * BATCH)
+    private class Workspace {
+        final double[] duration, earlyFinish, lateFinish;
+        final double[] row = new double[BATCH], project = new double[BATCH];
+        final long[] criticalCount;
+
+        Workspace(int size) {
+            duration = new double[size * BATCH];
+            earlyFinish = new double[size * BATCH];
+            lateFinish = new double[size * BATCH];
+            criticalCount = new long[size];
+        }
+
+        void evaluate(SplittableRandom random, double[] projectDurations, int first, int count) {
+            int n = graph.size;
+            sample(random, count);
+
+            // --- Forward pass: EF = max EF of the predecessors + duration ---
+            Arrays.fill(project, 0);
+            for (int k = 0; k < n; k++) {
+                int i = order[k], base = i * BATCH;
+                Arrays.fill(row, 0);
+                for (int p = graph.predStart[i]; p < graph.predStart[i + 1]; p++) {
+                    int predBase = graph.pred[p] * BATCH;
+                    for (int s = 0; s < BATCH; s++) {
+                        row[s] = Math.max(row[s], earlyFinish[predBase + s]);
+                    }
+                }
+                for (int s = 0; s < BATCH; s++) {
+                    double finish = row[s] + duration[base + s];
+                    earlyFinish[base + s] = finish;
+                    project[s] = Math.max(project[s], finish);
+                }
+            }
+
+            // --- Backward pass: LF = min LS of the successors, project duration without successors ---
+            for (int k = n - 1; k >= 0; k--) {
+                int i = order[k], base = i * BATCH;
+                System.arraycopy(project, 0, row, 0, BATCH);
+                for (int q = graph.succStart[i]; q < graph.succStart[i + 1]; q++) {
+                    int succBase = graph.succ[q] * BATCH;
+                    for (int s = 0; s < BATCH; s++) {
+                        row[s] = Math.min(row[s], lateFinish[succBase + s] - duration[succBase + s]);
+                    }
+                }
+                System.arraycopy(row, 0, lateFinish, base, BATCH);
+                // Slack = LF - EF; only the first `count` lanes of the last batch are real scenarios
+                int critical = 0;
+                for (int s = 0; s < count; s++) {
+                    critical += row[s] - earlyFinish[base + s] < CRITICAL_TOLERANCE ? 1 : 0;
+                }
+                criticalCount[i] += critical;
+            }
+            System.arraycopy(project, 0, projectDurations, first, count);
+        }
+
+        private void sample(SplittableRandom random, int count) {
+            for (int i = 0; i < graph.size; i++) {
+                int base = i * BATCH;
+                switch (distribution[i]) {
+                    case TRIANGULAR: {
+                        // Inverse CDF; u below the mode's share falls on the rising side
+                        double min = a[i], mode = b[i], max = c[i], range = max - min, split = (mode - min) / range;
+                        for (int s = 0; s < count; s++) {
+                            double u = random.nextDouble();
+                            duration[base + s] = u < split
+                                    ? min + Math.sqrt(u * range * (mode - min))
+                                    : max - Math.sqrt((1 - u) * range * (max - mode));
+                        }
+                        break;
+                    }
+                    case LOGNORMAL: {
+                        double mu = a[i], sigma = b[i];
+                        for (int s = 0; s < count; s++) {
+                            duration[base + s] = Math.exp(mu + sigma * random.nextGaussian());
+                        }
+                        break;
+                    }
+                    default:
+                        Arrays.fill(duration, base, base + count, a[i]);
+                }
+                // Unused lanes of the last batch just repeat lane 0
+                if (count < BATCH) Arrays.fill(duration, base + count, base + BATCH, duration[base]);
+            }
+        }
+    }
+
+    static class Result {
+        private final ActivityGraph graph;
+        private final double[] sortedDurations;
+        private final long[] criticalCount;
+        private final long nanos;
+
+        Result(ActivityGraph graph, double[] sortedDurations, long[] criticalCount, long nanos) {
+            this.graph = graph;
+            this.sortedDurations = sortedDurations;
+            this.criticalCount = criticalCount;
+            this.nanos = nanos;
+        }
+
+        public int getScenarios() { return sortedDurations.length; }
+        public long getNanos() { return nanos; }
+
+        public double getScenariosPerSecond() {
+            return sortedDurations.length * 1e9 / Math.max(1, nanos);
+        }
+
+        // Project duration that `percent` % of the scenarios do not exceed (nearest rank)
+        public double percentile(double percent) {
+            int rank = (int) Math.ceil(percent / 100 * sortedDurations.length);
+            return sortedDurations[Math.max(0, Math.min(sortedDurations.length - 1, rank - 1))];
+        }
+
+        public double mean() {
+            double sum = 0;
+            for (double d : sortedDurations) {
+                sum += d;
+            }
+            return sum / sortedDurations.length;
+        }
+
+        // Share of the scenarios in which activity i (a row of the graph) has zero slack
+        public double criticality(int i) {
+            return (double) criticalCount[i] / sortedDurations.length;
+        }
+
+        public void printResults(int topActivities) {
+            try (ExportWriter out = ExportWriter.console()) {
+                out.newline().text("--- Analisis Risiko CPM (Monte Carlo) ---").newline();
+                out.text("Skenario: ").number(sortedDurations.length).text(" (").fixed(getScenariosPerSecond(), 0)
+                        .text(" per detik)").newline();
+                out.text("Durasi Proyek: rata-rata ").fixed(mean(), 2).text(" | P50 ").fixed(percentile(50), 2);
+                out.text(" | P80 ").fixed(percentile(80), 2).text(" | P95 ").fixed(percentile(95), 2);
+                out.text(" | maks ").fixed(sortedDurations[sortedDurations.length - 1], 2).text(" menit").newline();
+                out.newline().text("Aktivitas Paling Kritis:").newline();
+                out.padRight("Nama Aktivitas", 40).text(" | Peluang Kritis").newline();
+                out.text("------------------------------------------+---------------").newline();
+                // Most critical first, ties by id: key = (scenarios - critical count) << 32 | id, sorted ascending.
+                // Project_Start/End are critical in every scenario and are left out
+                long[] keys = new long[graph.size];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = (sortedDurations.length - criticalCount[i]) << 32 | i;
+                }
+                Arrays.sort(keys);
+                int printed = 0;
+                for (int k = 0; k < keys.length && printed < topActivities; k++) {
+                    int i = (int) keys[k];
+                    byte kind = graph.kind(i);
+                    if (kind == ActivityGraph.START || kind == ActivityGraph.END) continue;
+                    out.padRight(graph.name(i), 40).text(" | ").fixed(100 * criticality(i), 1, 6).text(" %").newline();
+                    printed++;
+                }
+                out.text("---------------------------").newline();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+import java.util.List;
+import java.util.stream.IntStream;
+
+// k-nearest candidate lists (NeighborLists) on top of a full travel time store, e.g. the memory-mapped
+// TravelTimeMatrixCache matrix, so the solvers stay granular on large instances without giving up the
+// exact travel times. The candidates come from a GridIndex and are ordered by the store's travel times,
+// the same lists NeighborTravelTimes keeps for its own pairs.
+class NeighborListMatrix implements TravelTimeMatrix, NeighborLists {
+    private final TravelTimeMatrix matrix;
+    private final int n, k;
+    private final int[] neighbors; // neighbors[i*k + r] = r-th nearest location to i
+
+    public NeighborListMatrix(TravelTimeMatrix matrix, List<VRPSolverVisualizer2.GeoPoint> geoPoints, int neighborCount) {
+        this.matrix = matrix;
+        this.n = matrix.size();
+        this.k = Math.max(0, Math.min(neighborCount, n - 1));
+        this.neighbors = new int[n * k];
+        GridIndex grid = new GridIndex(geoPoints);
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int[] nearest = grid.nearest(i, k);
+            double[] times = new double[nearest.length];
+            int base = i * k;
+            // Insertion sort by travel time (the grid ranks by projected distance)
+            for (int r = 0; r < nearest.length; r++) {
+                double t = matrix.get(i, nearest[r]);
+                int pos = r;
+                while (pos > 0 && times[pos - 1] > t) {
+                    times[pos] = times[pos - 1];
+                    neighbors[base + pos] = neighbors[base + pos - 1];
+                    pos--;
+                }
+                times[pos] = t;
+                neighbors[base + pos] = nearest[r];
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return matrix.get(i, j);
+    }
+
+    @Override
+    public int neighborCount(int i) {
+        return k;
+    }
+
+    @Override
+    public int neighbor(int i, int rank) {
+        return neighbors[i * k + rank];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+// Granular candidate lists: for each location, a short list of nearby locations (closest first).
+// Neighbourhood moves only try to connect a customer to its candidates instead of every other customer.
+interface NeighborLists {
+    int neighborCount(int i);
+
+    int neighbor(int i, int rank);
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// Sparse travel time store for large instances: memory is O(n*k) instead of O(n^2).
+// - For every location, the k nearest locations (found with GridIndex) and their travel times.
+// - The depot row in full, since every route starts and ends there.
+// - Any other pair is computed on demand with VRPSolverVisualizer2.haversineDistance and kept in a
+//   fixed-size, direct-mapped cache (a newer pair simply overwrites an older one in the same slot).
+// Values are stored as float and always returned as float precision, so a pair reads the same
+// whether it came from a neighbour list, the cache or a fresh computation.
+// Safe for concurrent readers: cache entries are single longs (tag + value) accessed atomically.
+class NeighborTravelTimes implements TravelTimeMatrix, NeighborLists {
+    public static final int DEFAULT_CACHE_CAPACITY = 1 << 20;
+
+    private final List<VRPSolverVisualizer2.GeoPoint> geoPoints;
+    private final int n, k, depot;
+    private final double averageSpeedKmPerHour;
+    private final int[] neighbors;        // neighbors[i*k + r] = r-th nearest location to i
+    private final float[] neighborTimes;  // Travel time for the same slot
+    private final float[] depotTimes;
+    private final AtomicLongArray cache;  // (tag + 1) << 32 | floatBits, 0 = empty
+    private final int cacheBits;
+
+    public NeighborTravelTimes(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex, int neighborCount,
+                               double averageSpeedKmPerHour) {
+        this(geoPoints, depotIndex, neighborCount, averageSpeedKmPerHour, DEFAULT_CACHE_CAPACITY);
+    }
+
+    public NeighborTravelTimes(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex, int neighborCount,
+                               double averageSpeedKmPerHour, int cacheCapacity) {
+        this.geoPoints = geoPoints;
+        this.n = geoPoints.size();
+        this.k = Math.max(0, Math.min(neighborCount, n - 1));
+        this.depot = depotIndex;
+        this.averageSpeedKmPerHour = averageSpeedKmPerHour;
+
+        // The slot index keeps the low cacheBits of the pair key, the tag keeps the rest.
+        // Make the table large enough that the tag (+1 for the empty marker) fits in 32 bits.
+        int bits = 1;
+        while ((1 << bits) < cacheCapacity && bits < 30) bits++;
+        long maxKey = (long) n * n;
+        while ((maxKey >>> bits) + 1 > 0xffffffffL) bits++;
+        this.cacheBits = bits;
+        this.cache = new AtomicLongArray(1 << bits);
+
+        this.depotTimes = new float[n];
+        for (int i = 0; i < n; i++) {
+            depotTimes[i] = (float) compute(depot, i);
+        }
+
+        this.neighbors = new int[n * k];
+        this.neighborTimes = new float[n * k];
+        GridIndex grid = new GridIndex(geoPoints);
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int[] nearest = grid.nearest(i, k);
+            int base = i * k;
+            // Insertion sort by real travel time (the grid ranks by projected distance)
+            for (int r = 0; r < nearest.length; r++) {
+                float t = (float) compute(i, nearest[r]);
+                int pos = r;
+                while (pos > 0 && neighborTimes[base + pos - 1] > t) {
+                    neighborTimes[base + pos] = neighborTimes[base + pos - 1];
+                    neighbors[base + pos] = neighbors[base + pos - 1];
+                    pos--;
+                }
+                neighborTimes[base + pos] = t;
+                neighbors[base + pos] = nearest[r];
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        if (i == j) return 0;
+        if (i == depot) return depotTimes[j];
+        if (j == depot) return depotTimes[i];
+
+        for (int s = i * k, end = s + k; s < end; s++) {
+            if (neighbors[s] == j) return neighborTimes[s];
+        }
+        for (int s = j * k, end = s + k; s < end; s++) {
+            if (neighbors[s] == i) return neighborTimes[s];
+        }
+
+        long key = i < j ? (long) i * n + j : (long) j * n + i;
+        int slot = (int) (key & ((1 << cacheBits) - 1));
+        long tag = (key >>> cacheBits) + 1;
+        long entry = cache.getOpaque(slot);
+        if (entry >>> 32 == tag) {
+            return Float.intBitsToFloat((int) entry);
+        }
+        float t = (float) compute(i, j);
+        cache.setOpaque(slot, (tag << 32) | (Float.floatToRawIntBits(t) & 0xffffffffL));
+        return t;
+    }
+
+    @Override
+    public int neighborCount(int i) {
+        return k;
+    }
+
+    @Override
+    public int neighbor(int i, int rank) {
+        return neighbors[i * k + rank];
+    }
+
+    private double compute(int i, int j) {
+        if (i == j) return 0;
+        double distanceKm = VRPSolverVisualizer2.haversineDistance(geoPoints.get(i), geoPoints.get(j));
+        return (distanceKm / averageSpeedKmPerHour) * 60; // Convert distance (km) to time (minutes)
+    }
+}
\ No newline at end of file
@@ -0,0 +1,839 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+// Parallel multi-start adaptive large neighbourhood search (ALNS) with a wall-clock budget.
+// start() publishes a round-robin solution at once, so there is always a best solution to poll.
+// Every worker is an independent search on a ForkJoinPool:
+// - it starts from its own solution (savings, cheapest insertion, then randomised greedy insertions),
+//   polished with LocalSearchSolver; building the starts stops after START_BUDGET_FRACTION of the budget,
+//   so even on large instances the budget holds and the ALNS gets its share of it;
+// - each iteration removes q customers (random, worst, or related = close together) and reinserts them
+//   (greedy in random order, or regret-2), picking the operators by roulette over weights that adapt to
+//   how often each operator found a better solution;
+// - a worse solution is accepted with simulated annealing, the temperature falling with elapsed time;
+// - a new worker best is polished with LocalSearchSolver and published to the shared best.
+// The shared best is an immutable Solution behind an AtomicReference, replaced with a CAS loop only when
+// cheaper, so workers never block each other and getBestRoutes() can be polled from any thread while the
+// search runs. A worker that has not improved for RESTART_ITERATIONS continues from the shared best.
+// Cost: total route duration (travel times plus GeoPoint.serviceDuration), plus makespanWeight * the
+// longest route (the CPM project duration), with the same default weight as LocalSearchSolver.
+// With vehicles (capacity, shift length) or time windows on the points, every route keeps a
+// RouteFeasibility and the cost adds VIOLATION_PENALTY per unit of violation, so insertions and worst
+// removals are scored with the O(1) checks and infeasible solutions are allowed during the search but lose
+// against feasible ones.
+class ParallelSearchSolver implements RouteSolver {
+    private static final double EPS = 1e-9;
+    private static final double VIOLATION_PENALTY = 1000;
+    private static final int MIN_REMOVE = 4, MAX_REMOVE = 60;
+    private static final double MAX_REMOVE_FRACTION = 0.3;
+    private static final int SEGMENT_ITERATIONS = 100;  // Operator weights are adapted after every segment
+    private static final double REACTION = 0.2;
+    private static final double SCORE_GLOBAL_BEST = 33, SCORE_IMPROVED = 9, SCORE_ACCEPTED = 13;
+    private static final int RESTART_ITERATIONS = 2000;
+    private static final double WORST_REMOVAL_POWER = 3;
+    // Start temperature: a 5% worse solution is accepted with probability 0.5; it ends 1000x lower
+    private static final double START_WORSE = 0.05, START_ACCEPT = 0.5, FINAL_TEMPERATURE_RATIO = 1e-3;
+    private static final double START_BUDGET_FRACTION = 0.5;
+
+    private static final int RANDOM_REMOVAL = 0, WORST_REMOVAL = 1, RELATED_REMOVAL = 2;
+    private static final int GREEDY_INSERTION = 0, REGRET_INSERTION = 1;
+
+    private final long timeBudgetMillis;
+    private final int workerCount;
+    private final double makespanWeight;
+    private final long seed;
+    private final List<Vehicle> vehicles; // null = unlimited
+    private volatile Search lastSearch;
+
+    public ParallelSearchSolver(long timeBudgetMillis) {
+        this(timeBudgetMillis, Runtime.getRuntime().availableProcessors(), LocalSearchSolver.DEFAULT_MAKESPAN_WEIGHT, 42);
+    }
+
+    public ParallelSearchSolver(long timeBudgetMillis, int workerCount, double makespanWeight, long seed) {
+        this(timeBudgetMillis, workerCount, makespanWeight, seed, null);
+    }
+
+    // vehicles.get(r) drives route r; solve() must then be called with vehicleCount == vehicles.size().
+    // solve() with a list of vehicles uses that list instead
+    public ParallelSearchSolver(long timeBudgetMillis, int workerCount, double makespanWeight, long seed,
+                                List<Vehicle> vehicles) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.workerCount = Math.max(1, workerCount);
+        this.makespanWeight = makespanWeight;
+        this.seed = seed;
+        this.vehicles = vehicles;
+    }
+
+    // Runs the search for the whole time budget and returns the best routes
+    @Override
+    public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                     int depotIndex, int vehicleCount) {
+        return start(travelTimes, geoPoints, depotIndex, vehicleCount).await();
+    }
+
+    @Override
+    public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                     int depotIndex, List<Vehicle> vehicles) {
+        return start(travelTimes, geoPoints, depotIndex, vehicles).await();
+    }
+
+    // Starts the search in the background; poll the returned Search, or await() it
+    public Search start(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                        int depotIndex, int vehicleCount) {
+        return launch(new Search(travelTimes, geoPoints, depotIndex, vehicleCount, vehicles));
+    }
+
+    // Same, for the given vehicles instead of the configured ones
+    public Search start(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                        int depotIndex, List<Vehicle> vehicles) {
+        return launch(new Search(travelTimes, geoPoints, depotIndex, vehicles.size(), vehicles));
+    }
+
+    private Search launch(Search search) {
+        search.launch();
+        lastSearch = search;
+        return search;
+    }
+
+    @Override
+    public long timeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    @Override
+    public ParallelSearchSolver withTimeBudget(long millis) {
+        return new ParallelSearchSolver(millis, workerCount, makespanWeight, seed, vehicles);
+    }
+
+    // Of the last search started; read it after await() for an exact figure
+    @Override
+    public long movesEvaluated() {
+        Search search = lastSearch;
+        return search == null ? 0 : search.getMovesEvaluated();
+    }
+
+    // Immutable published solution: customers per vehicle without the depot
+    static final class Solution {
+        final double cost;
+        final int[][] routes;
+
+        Solution(double cost, int[][] routes) {
+            this.cost = cost;
+            this.routes = routes;
+        }
+    }
+
+    // One running search; all methods may be called from any thread
+    public final class Search {
+        private final TravelTimeMatrix travelTimes;
+        private final NeighborLists candidates; // null = full neighbourhoods
+        private final List<VRPSolverVisualizer2.GeoPoint> geoPoints;
+        private final int depot, vehicleCount, n;
+        private final List<Vehicle> vehicles; // null = unlimited
+        private final int[] customers;
+        private final double[] service;
+        private final boolean constrained; // Routes carry a RouteFeasibility
+        private final AtomicReference<Solution> best = new AtomicReference<>();
+        private volatile boolean stopped;
+        private long startNanos, deadlineNanos;
+        private ForkJoinPool pool;
+        private Worker[] workers;
+        private ForkJoinTask<?>[] tasks; // tasks[w] runs workers[w]
+
+        private Search(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                       int depotIndex, int vehicleCount, List<Vehicle> vehicles) {
+            this.travelTimes = travelTimes;
+            this.candidates = travelTimes instanceof NeighborLists ? (NeighborLists) travelTimes : null;
+            this.geoPoints = geoPoints;
+            this.depot = depotIndex;
+            this.vehicleCount = vehicleCount;
+            this.n = geoPoints.size();
+            this.vehicles = vehicles;
+            if (vehicles != null && vehicles.size() != vehicleCount) {
+                throw new IllegalArgumentException(vehicles.size() + " vehicles configured, " + vehicleCount + " requested");
+            }
+            this.customers = new int[n - 1];
+            this.service = new double[n];
+            boolean timeWindows = false;
+            for (int i = 0, k = 0; i < n; i++) {
+                VRPSolverVisualizer2.GeoPoint point = geoPoints.get(i);
+                timeWindows |= point.readyTime > 0 || point.dueTime < Double.POSITIVE_INFINITY;
+                if (i != depot) {
+                    customers[k++] = i;
+                    service[i] = point.serviceDuration;
+                }
+            }
+            this.constrained = vehicles != null || timeWindows;
+        }
+
+        private Vehicle vehicle(int r) {
+            return vehicles == null ? Vehicle.UNLIMITED : vehicles.get(r);
+        }
+
+        private void launch() {
+            startNanos = System.nanoTime();
+            deadlineNanos = startNanos + timeBudgetMillis * 1_000_000L;
+            // Published before any worker runs, so getBestRoutes() has an answer from the start
+            List<List<Integer>> start = new RoundRobinSolver().solve(travelTimes, geoPoints, depot, vehicleCount);
+            publish(new Working(this).load(start).snapshot());
+            pool = new ForkJoinPool(workerCount);
+            workers = new Worker[workerCount];
+            tasks = new ForkJoinTask<?>[workerCount];
+            for (int w = 0; w < workerCount; w++) {
+                workers[w] = new Worker(this, w);
+                tasks[w] = pool.submit(workers[w]);
+            }
+        }
+
+        // Best routes found so far in the vehicleRoutes shape (depot first and last)
+        public List<List<Integer>> getBestRoutes() {
+            Solution solution = best.get();
+            List<List<Integer>> result = new ArrayList<>(solution.routes.length);
+            for (int[] route : solution.routes) {
+                List<Integer> list = new ArrayList<>(route.length + 2);
+                list.add(depot);
+                for (int c : route) {
+                    list.add(c);
+                }
+                list.add(depot);
+                result.add(list);
+            }
+            return result;
+        }
+
+        // Cost of getBestRoutes(), violation penalty included
+        public double getBestCost() {
+            Solution solution = best.get();
+            return solution == null ? Double.POSITIVE_INFINITY : solution.cost;
+        }
+
+        // ALNS iterations (destroy + repair) over all workers
+        public long getIterations() {
+            long total = 0;
+            for (Worker worker : workers) {
+                total += worker.publishedIterations;
+            }
+            return total;
+        }
+
+        // Insertion positions scored plus local search moves evaluated, over all workers
+        public long getMovesEvaluated() {
+            long total = 0;
+            for (Worker worker : workers) {
+                total += worker.publishedEvaluations;
+            }
+            return total;
+        }
+
+        public boolean isDone() {
+            for (ForkJoinTask<?> task : tasks) {
+                if (!task.isDone()) return false;
+            }
+            return true;
+        }
+
+        // Ends the search early; await() still returns the best solution found
+        public void stop() {
+            stopped = true;
+        }
+
+        // Waits until the budget is used up (or stop() was called) and returns the best routes
+        public List<List<Integer>> await() {
+            try {
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+            } finally {
+                pool.shutdown();
+            }
+            return getBestRoutes();
+        }
+
+        private boolean timeUp() {
+            return stopped || System.nanoTime() >= deadlineNanos;
+        }
+
+        // Building the start solutions is over
+        private boolean startUp() {
+            return timeUp() || elapsed() >= START_BUDGET_FRACTION;
+        }
+
+        // Fraction of the budget used, 0..1
+        private double elapsed() {
+            return Math.min(1, (double) (System.nanoTime() - startNanos) / Math.max(1, deadlineNanos - startNanos));
+        }
+
+        // Lock-free: replace the shared best only with a cheaper solution
+        private boolean publish(Solution candidate) {
+            while (true) {
+                Solution current = best.get();
+                if (current != null && current.cost <= candidate.cost + EPS) return false;
+                if (best.compareAndSet(current, candidate)) return true;
+            }
+        }
+    }
+
+    // Mutable routes of one worker with per-route durations for O(1) insertion costs
+    private final class Working {
+        final Search s;
+        final int[][] routes;
+        final int[] len;
+        final int[] routeOf, posOf; // routeOf = -1 while a customer is removed
+        final double[] duration;    // Travel plus service per route
+        final RouteFeasibility[] feasibility; // null when unconstrained
+        final double[] violation;
+        double total, makespan, totalViolation;
+
+        Working(Search s) {
+            this.s = s;
+            this.routes = new int[s.vehicleCount][4];
+            this.len = new int[s.vehicleCount];
+            this.routeOf = new int[s.n];
+            this.posOf = new int[s.n];
+            this.duration = new double[s.vehicleCount];
+            this.violation = new double[s.vehicleCount];
+            Arrays.fill(routeOf, -1);
+            if (s.constrained) {
+                feasibility = new RouteFeasibility[s.vehicleCount];
+                for (int r = 0; r < feasibility.length; r++) {
+                    feasibility[r] = new RouteFeasibility(s.travelTimes, s.geoPoints, s.depot, s.vehicle(r));
+                }
+            } else {
+                feasibility = null;
+            }
+        }
+
+        Working(Working other) {
+            this.s = other.s;
+            this.routes = new int[other.routes.length][];
+            for (int r = 0; r < routes.length; r++) {
+                routes[r] = other.routes[r].clone();
+            }
+            this.len = other.len.clone();
+            this.routeOf = other.routeOf.clone();
+            this.posOf = other.posOf.clone();
+            this.duration = other.duration.clone();
+            this.violation = other.violation.clone();
+            this.total = other.total;
+            this.makespan = other.makespan;
+            this.totalViolation = other.totalViolation;
+            if (other.feasibility != null) {
+                feasibility = new RouteFeasibility[other.feasibility.length];
+                for (int r = 0; r < feasibility.length; r++) {
+                    feasibility[r] = new RouteFeasibility(other.feasibility[r]);
+                }
+            } else {
+                feasibility = null;
+            }
+        }
+
+        // Routes as customers per vehicle without the depot (list form includes it at both ends)
+        Working load(int[][] customerRoutes) {
+            Arrays.fill(routeOf, -1);
+            for (int r = 0; r < routes.length; r++) {
+                int[] route = customerRoutes[r];
+                routes[r] = Arrays.copyOf(route, Math.max(4, route.length));
+                len[r] = route.length;
+                for (int p = 0; p < len[r]; p++) {
+                    routeOf[route[p]] = r;
+                    posOf[route[p]] = p;
+                }
+            }
+            recompute();
+            return this;
+        }
+
+        Working load(List<List<Integer>> vehicleRoutes) {
+            int[][] customerRoutes = new int[vehicleRoutes.size()][];
+            for (int r = 0; r < customerRoutes.length; r++) {
+                List<Integer> route = vehicleRoutes.get(r);
+                customerRoutes[r] = new int[route.size() - 2];
+                for (int p = 1; p < route.size() - 1; p++) {
+                    customerRoutes[r][p - 1] = route.get(p);
+                }
+            }
+            return load(customerRoutes);
+        }
+
+        Solution snapshot() {
+            int[][] copy = new int[routes.length][];
+            for (int r = 0; r < routes.length; r++) {
+                copy[r] = Arrays.copyOf(routes[r], len[r]);
+            }
+            return new Solution(cost(), copy);
+        }
+
+        double cost() {
+            return total + makespanWeight * makespan + VIOLATION_PENALTY * totalViolation;
+        }
+
+        int at(int r, int p) {
+            return p < 0 || p >= len[r] ? s.depot : routes[r][p];
+        }
+
+        void recompute() {
+            total = 0;
+            makespan = 0;
+            for (int r = 0; r < routes.length; r++) {
+                double d = 0;
+                for (int p = 0; p <= len[r]; p++) {
+                    int node = at(r, p);
+                    d += s.travelTimes.get(at(r, p - 1), node) + (node == s.depot ? 0 : s.service[node]);
+                }
+                duration[r] = d;
+                total += d;
+                makespan = Math.max(makespan, d);
+            }
+            totalViolation = 0;
+            if (feasibility == null) return;
+            for (int r = 0; r < routes.length; r++) {
+                feasibility[r].load(routes[r], len[r]);
+                violation[r] = feasibility[r].violation();
+                totalViolation += violation[r];
+            }
+        }
+
+        void refreshViolation(int r) {
+            if (feasibility == null) return;
+            feasibility[r].load(routes[r], len[r]);
+            totalViolation += feasibility[r].violation() - violation[r];
+            violation[r] = feasibility[r].violation();
+        }
+
+        // Change of route r's duration when c is inserted in gap p (between positions p-1 and p)
+        double insertionDelta(int c, int r, int p) {
+            TravelTimeMatrix d = s.travelTimes;
+            int u = at(r, p - 1), w = at(r, p);
+            return d.get(u, c) + d.get(c, w) - d.get(u, w) + s.service[c];
+        }
+
+        // Objective change of that insertion; an insertion can only raise the makespan through route r
+        double insertionScore(int c, int r, int p) {
+            double delta = insertionDelta(c, r, p);
+            double score = delta + makespanWeight * Math.max(0, duration[r] + delta - makespan);
+            if (feasibility != null) {
+                score += VIOLATION_PENALTY * (feasibility[r].insertionViolation(c, p) - violation[r]);
+            }
+            return score;
+        }
+
+        // Change of route duration when c is taken out of its route
+        double removalDelta(int c) {
+            TravelTimeMatrix d = s.travelTimes;
+            int r = routeOf[c], p = posOf[c];
+            int u = at(r, p - 1), w = at(r, p + 1);
+            return d.get(u, w) - d.get(u, c) - d.get(c, w) - s.service[c];
+        }
+
+        // Objective change of taking c out, violation penalty included (the makespan is left out, as
+        // removals are scored one at a time)
+        double removalScore(int c) {
+            double score = removalDelta(c);
+            if (feasibility != null) {
+                int r = routeOf[c];
+                score += VIOLATION_PENALTY * (feasibility[r].removalViolation(posOf[c] + 1) - violation[r]);
+            }
+            return score;
+        }
+
+        void insert(int c, int r, int p) {
+            double delta = insertionDelta(c, r, p);
+            if (len[r] == routes[r].length) {
+                routes[r] = Arrays.copyOf(routes[r], len[r] * 2);
+            }
+            System.arraycopy(routes[r], p, routes[r], p + 1, len[r] - p);
+            routes[r][p] = c;
+            len[r]++;
+            routeOf[c] = r;
+            for (int q = p; q < len[r]; q++) {
+                posOf[routes[r][q]] = q;
+            }
+            duration[r] += delta;
+            total += delta;
+            makespan = Math.max(makespan, duration[r]);
+            refreshViolation(r);
+        }
+
+        // Removes c; the makespan is refreshed by the caller once all removals are done
+        void remove(int c) {
+            double delta = removalDelta(c);
+            int r = routeOf[c], p = posOf[c];
+            System.arraycopy(routes[r], p + 1, routes[r], p, len[r] - p - 1);
+            len[r]--;
+            routeOf[c] = -1;
+            for (int q = p; q < len[r]; q++) {
+                posOf[routes[r][q]] = q;
+            }
+            duration[r] += delta;
+            total += delta;
+            refreshViolation(r);
+        }
+
+        void refreshMakespan() {
+            makespan = 0;
+            for (double d : duration) {
+                makespan = Math.max(makespan, d);
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final Search s;
+        private final int index;
+        private final SplittableRandom random;
+        private final double[] destroyWeights = {1, 1, 1}, destroyScores = new double[3];
+        private final double[] repairWeights = {1, 1}, repairScores = new double[2];
+        private final int[] destroyUses = new int[3], repairUses = new int[2];
+        private int[] removed;
+        private long[] keys;
+        private long evaluations;
+        private volatile long publishedIterations, publishedEvaluations; // Copied once per iteration for Search
+
+        Worker(Search s, int index) {
+            this.s = s;
+            this.index = index;
+            this.random = new SplittableRandom(seed + 0x9E3779B97F4A7C15L * (index + 1));
+        }
+
+        @Override
+        public void run() {
+            if (s.customers.length == 0) {
+                s.publish(new Working(s).snapshot());
+                return;
+            }
+            removed = new int[s.customers.length];
+            keys = new long[s.customers.length];
+
+            Working current = initialSolution();
+            s.publish(current.snapshot());
+            double bestOwn = current.cost();
+            double startTemperature = -START_WORSE * Math.max(bestOwn, 1) / Math.log(START_ACCEPT);
+            long iteration = 0, lastImprovement = 0;
+
+            while (!s.timeUp()) {
+                iteration++;
+                publishedIterations = iteration;
+                publishedEvaluations = evaluations;
+                int destroy = roulette(destroyWeights);
+                int repair = roulette(repairWeights);
+                Working candidate = new Working(current);
+                int count = destroy(candidate, destroy, removalCount());
+                repair(candidate, repair, count);
+
+                double cost = candidate.cost();
+                double score = 0;
+                if (cost < bestOwn - EPS) {
+                    candidate = polish(candidate, s::timeUp);
+                    cost = candidate.cost();
+                    bestOwn = Math.min(bestOwn, cost);
+                    current = candidate;
+                    lastImprovement = iteration;
+                    score = s.publish(candidate.snapshot()) ? SCORE_GLOBAL_BEST : SCORE_IMPROVED;
+                } else if (cost < current.cost() - EPS) {
+                    current = candidate;
+                    score = SCORE_IMPROVED;
+                } else {
+                    double temperature = startTemperature * Math.pow(FINAL_TEMPERATURE_RATIO, s.elapsed());
+                    if (random.nextDouble() < Math.exp((current.cost() - cost) / temperature)) {
+                        current = candidate;
+                        score = SCORE_ACCEPTED;
+                    }
+                }
+                destroyUses[destroy]++;
+                destroyScores[destroy] += score;
+                repairUses[repair]++;
+                repairScores[repair] += score;
+                if (iteration % SEGMENT_ITERATIONS == 0) {
+                    adapt(destroyWeights, destroyScores, destroyUses);
+                    adapt(repairWeights, repairScores, repairUses);
+                }
+
+                if (iteration - lastImprovement > RESTART_ITERATIONS) {
+                    Solution shared = s.best.get();
+                    current = new Working(s).load(shared.routes);
+                    bestOwn = Math.min(bestOwn, current.cost());
+                    lastImprovement = iteration;
+                }
+            }
+        }
+
+        // Multi-start: worker 0 and 1 start from the two LocalSearchSolver constructions, the others
+        // from a greedy insertion of all customers in random order; every start is polished. Once
+        // startUp(), the customers left are appended round-robin and the polishing stops.
+        private Working initialSolution() {
+            if (index < 2) {
+                LocalSearchSolver.Construction construction = index == 0
+                        ? LocalSearchSolver.Construction.SAVINGS : LocalSearchSolver.Construction.CHEAPEST_INSERTION;
+                LocalSearchSolver solver = new LocalSearchSolver(construction, makespanWeight).stopWhen(s::startUp);
+                List<List<Integer>> routes = s.vehicles == null
+                        ? solver.solve(s.travelTimes, s.geoPoints, s.depot, s.vehicleCount)
+                        : solver.solve(s.travelTimes, s.geoPoints, s.depot, s.vehicles);
+                evaluations += solver.movesEvaluated();
+                return new Working(s).load(routes);
+            }
+            Working state = new Working(s);
+            int[] order = s.customers.clone();
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+            for (int i = 0; i < order.length; i++) {
+                int c = order[i];
+                if (s.startUp()) {
+                    int r = i % s.vehicleCount;
+                    state.insert(c, r, state.len[r]);
+                } else {
+                    bestInsertion(state, c);
+                    state.insert(c, bestRoute, bestPos);
+                }
+            }
+            return polish(state, s::startUp);
+        }
+
+        // LocalSearchSolver keeps capacity and shift length but does not know time windows: with
+        // constraints its result is only kept when it is cheaper including the violation penalty
+        private Working polish(Working state, BooleanSupplier stop) {
+            Working polished = s.constrained ? new Working(state) : state;
+            LocalSearchSolver localSearch = new LocalSearchSolver(LocalSearchSolver.Construction.SAVINGS, makespanWeight)
+                    .stopWhen(stop);
+            localSearch.improve(s.travelTimes, s.geoPoints, s.depot, polished.routes, polished.len, s.vehicles);
+            evaluations += localSearch.movesEvaluated();
+            for (int r = 0; r < polished.routes.length; r++) {
+                for (int p = 0; p < polished.len[r]; p++) {
+                    polished.routeOf[polished.routes[r][p]] = r;
+                    polished.posOf[polished.routes[r][p]] = p;
+                }
+            }
+            polished.recompute();
+            return polished.cost() <= state.cost() || polished == state ? polished : state;
+        }
+
+        private int removalCount() {
+            int customers = s.customers.length;
+            int max = Math.min(customers, Math.max(MIN_REMOVE, Math.min(MAX_REMOVE, (int) (customers * MAX_REMOVE_FRACTION))));
+            int min = Math.min(MIN_REMOVE, max);
+            return min + random.nextInt(max - min + 1);
+        }
+
+        // --- Destroy operators: fill removed[0..count) and take those customers out ---
+
+        private int destroy(Working state, int operator, int count) {
+            int k;
+            if (operator == RANDOM_REMOVAL) {
+                k = randomRemoval(state, count, 0);
+            } else if (operator == WORST_REMOVAL) {
+                k = worstRemoval(state, count);
+            } else {
+                k = relatedRemoval(state, count);
+            }
+            state.refreshMakespan();
+            return k;
+        }
+
+        // Customers whose removal saves the most (a violation they cause included), picked with a bias
+        // (rank = y^p * size) for diversity
+        private int worstRemoval(Working state, int count) {
+            int m = s.customers.length;
+            for (int i = 0; i < m; i++) {
+                int c = s.customers[i];
+                float saving = (float) -state.removalScore(c);
+                keys[i] = ((long) LocalSearchSolver.sortableBits(-saving) << 32) | c;
+            }
+            Arrays.sort(keys, 0, m);
+            int k = 0;
+            while (k < count) {
+                int rank = (int) (Math.pow(random.nextDouble(), WORST_REMOVAL_POWER) * m);
+                int c = (int) keys[rank];
+                if (state.routeOf[c] == -1) continue;
+                state.remove(c);
+                removed[k++] = c;
+            }
+            return k;
+        }
+
+        // A random customer and the customers closest to it, so the repair can rearrange a whole area
+        private int relatedRemoval(Working state, int count) {
+            int seedCustomer = s.customers[random.nextInt(s.customers.length)];
+            int k = 0;
+            state.remove(seedCustomer);
+            removed[k++] = seedCustomer;
+            if (s.candidates != null) {
+                // Breadth-first over the neighbour lists, starting at the seed
+                for (int head = 0; head < k && k < count; head++) {
+                    int c = removed[head];
+                    for (int rank = 0; rank < s.candidates.neighborCount(c) && k < count; rank++) {
+                        int m = s.candidates.neighbor(c, rank);
+                        if (m != s.depot && state.routeOf[m] != -1) {
+                            state.remove(m);
+                            removed[k++] = m;
+                        }
+                    }
+                }
+                return k < count ? k + randomRemoval(state, count - k, k) : k;
+            }
+            int m = 0;
+            for (int c : s.customers) {
+                if (c != seedCustomer) {
+                    float t = (float) s.travelTimes.get(seedCustomer, c);
+                    keys[m++] = ((long) LocalSearchSolver.sortableBits(t) << 32) | c;
+                }
+            }
+            Arrays.sort(keys, 0, m);
+            for (int i = 0; i < m && k < count; i++) {
+                int c = (int) keys[i];
+                state.remove(c);
+                removed[k++] = c;
+            }
+            return k;
+        }
+
+        // Random customers, written to removed[offset..]
+        private int randomRemoval(Working state, int count, int offset) {
+            int k = 0;
+            while (k < count) {
+                int c = s.customers[random.nextInt(s.customers.length)];
+                if (state.routeOf[c] == -1) continue;
+                state.remove(c);
+                removed[offset + k++] = c;
+            }
+            return k;
+        }
+
+        // --- Repair operators: insert removed[0..count) ---
+
+        private void repair(Working state, int operator, int count) {
+            if (operator == GREEDY_INSERTION) {
+                for (int i = count - 1; i > 0; i--) { // Random order
+                    int j = random.nextInt(i + 1);
+                    int t = removed[i];
+                    removed[i] = removed[j];
+                    removed[j] = t;
+                }
+                greedyInsertion(state, count);
+            } else {
+                regretInsertion(state, count);
+            }
+        }
+
+        // Each customer in turn at its cheapest position
+        private void greedyInsertion(Working state, int count) {
+            for (int i = 0; i < count; i++) {
+                int c = removed[i];
+                bestInsertion(state, c);
+                state.insert(c, bestRoute, bestPos);
+            }
+        }
+
+        // Repeatedly insert the customer with the largest regret: the cost of its best position in its
+        // second-best route minus its best position overall
+        private void regretInsertion(Working state, int count) {
+            int left = count;
+            while (left > 0) {
+                int pick = -1, pickRoute = -1, pickPos = -1;
+                double pickRegret = Double.NEGATIVE_INFINITY, pickCost = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < left; i++) {
+                    int c = removed[i];
+                    bestInsertion(state, c);
+                    double regret = secondCost == Double.POSITIVE_INFINITY ? 0 : secondCost - bestCost; // One vehicle: greedy
+                    if (regret > pickRegret + EPS || (regret > pickRegret - EPS && bestCost < pickCost)) {
+                        pick = i;
+                        pickRoute = bestRoute;
+                        pickPos = bestPos;
+                        pickRegret = regret;
+                        pickCost = bestCost;
+                    }
+                }
+                int c = removed[pick];
+                removed[pick] = removed[--left];
+                removed[left] = c;
+                state.insert(c, pickRoute, pickPos);
+            }
+        }
+
+        // Best insertion of c found by bestInsertion(), and the best cost in any other route
+        private int bestRoute, bestPos;
+        private double bestCost, secondCost;
+
+        private void bestInsertion(Working state, int c) {
+            bestRoute = -1;
+            bestPos = -1;
+            bestCost = Double.POSITIVE_INFINITY;
+            secondCost = Double.POSITIVE_INFINITY;
+            if (s.candidates == null) {
+                for (int r = 0; r < state.routes.length; r++) {
+                    double routeCost = Double.POSITIVE_INFINITY;
+                    int routePos = -1;
+                    for (int p = 0; p <= state.len[r]; p++) {
+                        double cost = state.insertionScore(c, r, p);
+                        if (cost < routeCost) {
+                            routeCost = cost;
+                            routePos = p;
+                        }
+                    }
+                    evaluations += state.len[r] + 1;
+                    offer(r, routePos, routeCost);
+                }
+                return;
+            }
+            // Gaps next to a routed candidate, and both ends of every route
+            for (int rank = 0; rank < s.candidates.neighborCount(c); rank++) {
+                int m = s.candidates.neighbor(c, rank);
+                if (m != s.depot && state.routeOf[m] != -1) {
+                    int r = state.routeOf[m];
+                    evaluations += 2;
+                    double before = state.insertionScore(c, r, state.posOf[m]);
+                    double after = state.insertionScore(c, r, state.posOf[m] + 1);
+                    offer(r, before <= after ? state.posOf[m] : state.posOf[m] + 1, Math.min(before, after));
+                }
+            }
+            evaluations += 2L * state.routes.length;
+            for (int r = 0; r < state.routes.length; r++) {
+                offer(r, 0, state.insertionScore(c, r, 0));
+                offer(r, state.len[r], state.insertionScore(c, r, state.len[r]));
+            }
+        }
+
+        // Keeps the best position and the best cost in a different route (for the regret)
+        private void offer(int r, int p, double cost) {
+            if (cost < bestCost) {
+                if (r != bestRoute) secondCost = bestCost;
+                bestCost = cost;
+                bestRoute = r;
+                bestPos = p;
+            } else if (r != bestRoute && cost < secondCost) {
+                secondCost = cost;
+            }
+        }
+
+        // --- Adaptive operator selection ---
+
+        private int roulette(double[] weights) {
+            double sum = 0;
+            for (double w : weights) sum += w;
+            double x = random.nextDouble() * sum;
+            for (int i = 0; i < weights.length - 1; i++) {
+                x -= weights[i];
+                if (x < 0) return i;
+            }
+            return weights.length - 1;
+        }
+
+        private void adapt(double[] weights, double[] scores, int[] uses) {
+            for (int i = 0; i < weights.length; i++) {
+                if (uses[i] > 0) {
+                    weights[i] = Math.max(0.05, (1 - REACTION) * weights[i] + REACTION * scores[i] / uses[i]);
+                }
+                scores[i] = 0;
+                uses[i] = 0;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Writes a VRPSolution for other systems: routes.csv (one row per stop with its schedule),
+// activities.csv (the CPM table in graph row order) and solution.json (both together plus the critical
+// path), streamed through ExportWriter. Nothing is sorted or recomputed, so the solution and its
+// CPMCalculator are left exactly as they are.
+// Times are minutes since shift start with EXPORT_DECIMALS decimals; coordinates keep 6 decimals (~0.1 m).
+class ResultExporter {
+    static final String EXPORT_PROPERTY = "vrp.export"; // e.g. -Dvrp.export=out/ (directory)
+    static final int EXPORT_DECIMALS = 3;
+    private static final int COORDINATE_DECIMALS = 6;
+
+    private final VRPSolution solution;
+
+    public ResultExporter(VRPSolution solution) {
+        this.solution = solution;
+    }
+
+    // routes.csv, activities.csv and solution.json in the directory (created if missing), with the prefix
+    public void writeAll(Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        try (ExportWriter out = ExportWriter.open(directory.resolve(prefix + "routes.csv"))) {
+            writeRoutesCsv(out);
+        }
+        try (ExportWriter out = ExportWriter.open(directory.resolve(prefix + "activities.csv"))) {
+            writeActivitiesCsv(out);
+        }
+        try (ExportWriter out = ExportWriter.open(directory.resolve(prefix + "solution.json"))) {
+            writeJson(out);
+        }
+    }
+
+    // vehicle,position,point,label,latitude,longitude,travel,arrival,start,departure
+    // Position 0 and the last position are the depot; travel is the leg into the stop
+    public void writeRoutesCsv(ExportWriter out) throws IOException {
+        out.text("vehicle,position,point,label,latitude,longitude,travel,arrival,start,departure").newline();
+        List<List<Integer>> routes = solution.getVehicleRoutes();
+        for (int v = 0; v < routes.size(); v++) {
+            List<Integer> route = routes.get(v);
+            double[] legs = legs(route);
+            double clock = 0;
+            for (int j = 0; j < route.size(); j++) {
+                int point = route.get(j);
+                VRPSolverVisualizer2.GeoPoint geoPoint = solution.getGeoPoints().get(point);
+                double travel = j == 0 ? 0 : legs[j - 1];
+                double arrival = clock + travel, start = arrival, departure = arrival;
+                if (j > 0 && point != solution.getDepotIndex()) {
+                    start = Math.max(arrival, geoPoint.readyTime);
+                    departure = start + geoPoint.serviceDuration;
+                }
+                clock = departure;
+                out.number(v + 1).ch(',').number(j).ch(',').number(point).ch(',').csv(geoPoint.label).ch(',');
+                out.fixed(geoPoint.lat, COORDINATE_DECIMALS).ch(',').fixed(geoPoint.lon, COORDINATE_DECIMALS).ch(',');
+                out.fixed(travel, EXPORT_DECIMALS).ch(',').fixed(arrival, EXPORT_DECIMALS).ch(',');
+                out.fixed(start, EXPORT_DECIMALS).ch(',').fixed(departure, EXPORT_DECIMALS).newline();
+            }
+        }
+    }
+
+    // id,name,duration,es,ef,ls,lf,slack,critical
+    public void writeActivitiesCsv(ExportWriter out) throws IOException {
+        CPMCalculator cpm = solution.getCpm();
+        ActivityGraph g = cpm.getGraph();
+        boolean[] critical = criticalFlags(cpm);
+        out.text("id,name,duration,es,ef,ls,lf,slack,critical").newline();
+        for (int i = 0; i < g.size; i++) {
+            out.number(i).ch(',').csv(g.name(i)).ch(',');
+            out.fixed(g.duration[i], EXPORT_DECIMALS).ch(',');
+            out.fixed(g.earlyStart[i], EXPORT_DECIMALS).ch(',').fixed(g.earlyFinish[i], EXPORT_DECIMALS).ch(',');
+            out.fixed(g.lateStart[i], EXPORT_DECIMALS).ch(',').fixed(g.lateFinish[i], EXPORT_DECIMALS).ch(',');
+            out.fixed(g.slack[i], EXPORT_DECIMALS).ch(',').text(critical[i] ? "true" : "false").newline();
+        }
+    }
+
+    // {"projectDuration":..,"totalTravelTime":..,"routes":[{"vehicle":1,"duration":..,"points":[..],
+    //  "violations":[..]}],"activities":[{"id":..,"name":..,"duration":..,"es":..,...}],"criticalPath":[ids]}
+    public void writeJson(ExportWriter out) throws IOException {
+        CPMCalculator cpm = solution.getCpm();
+        ActivityGraph g = cpm.getGraph();
+        out.text("{\"projectDuration\":").json(cpm.getProjectDuration(), EXPORT_DECIMALS);
+        out.text(",\"totalTravelTime\":").json(solution.totalTravelTime(), EXPORT_DECIMALS);
+        out.text(",\"routes\":[");
+        List<List<Integer>> routes = solution.getVehicleRoutes();
+        for (int v = 0; v < routes.size(); v++) {
+            if (v > 0) out.ch(',');
+            out.text("{\"vehicle\":").number(v + 1);
+            out.text(",\"duration\":").json(solution.routeDuration(v), EXPORT_DECIMALS);
+            out.text(",\"points\":[");
+            List<Integer> route = routes.get(v);
+            for (int j = 0; j < route.size(); j++) {
+                if (j > 0) out.ch(',');
+                out.number(route.get(j));
+            }
+            out.text("],\"violations\":[");
+            List<String> violations = solution.getViolations(v);
+            for (int k = 0; k < violations.size(); k++) {
+                if (k > 0) out.ch(',');
+                out.json(violations.get(k));
+            }
+            out.text("]}");
+        }
+        out.text("],\"activities\":[");
+        for (int i = 0; i < g.size; i++) {
+            if (i > 0) out.ch(',');
+            out.text("{\"id\":").number(i).text(",\"name\":").json(g.name(i));
+            out.text(",\"duration\":").json(g.duration[i], EXPORT_DECIMALS);
+            out.text(",\"es\":").json(g.earlyStart[i], EXPORT_DECIMALS);
+            out.text(",\"ef\":").json(g.earlyFinish[i], EXPORT_DECIMALS);
+            out.text(",\"ls\":").json(g.lateStart[i], EXPORT_DECIMALS);
+            out.text(",\"lf\":").json(g.lateFinish[i], EXPORT_DECIMALS);
+            out.text(",\"slack\":").json(g.slack[i], EXPORT_DECIMALS).ch('}');
+        }
+        out.text("],\"criticalPath\":[");
+        int[] criticalPath = cpm.getCriticalPathIds();
+        for (int k = 0; k < criticalPath.length; k++) {
+            if (k > 0) out.ch(',');
+            out.number(criticalPath[k]);
+        }
+        out.text("]}").newline();
+    }
+
+    private double[] legs(List<Integer> route) {
+        return TravelTimeMatrix.legTimes(solution.getTravelTimes(), route, solution.getGeoPoints(), solution.getDepotIndex());
+    }
+
+    private static boolean[] criticalFlags(CPMCalculator cpm) {
+        boolean[] critical = new boolean[cpm.getGraph().size];
+        for (int i : cpm.getCriticalPathIds()) {
+            critical[i] = true;
+        }
+        return critical;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// The original "simulated" assignment: customers are dealt out with i % vehicleCount.
+// Kept as a baseline solver for comparisons.
+class RoundRobinSolver implements RouteSolver {
+
+    @Override
+    public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                     int depotIndex, int vehicleCount) {
+        List<List<Integer>> assignedCustomersPerVehicle = new ArrayList<>();
+        for (int i = 0; i < vehicleCount; i++) {
+            assignedCustomersPerVehicle.add(new ArrayList<>());
+        }
+
+        int k = 0;
+        for (int customerId = 0; customerId < geoPoints.size(); customerId++) {
+            if (customerId != depotIndex) {
+                assignedCustomersPerVehicle.get(k++ % vehicleCount).add(customerId);
+            }
+        }
+
+        List<List<Integer>> routes = new ArrayList<>();
+        for (List<Integer> assigned : assignedCustomersPerVehicle) {
+            List<Integer> finalRoute = new ArrayList<>();
+            finalRoute.add(depotIndex); // Start at depot
+            finalRoute.addAll(assigned); // Add assigned customers
+            finalRoute.add(depotIndex); // Return to depot
+            routes.add(finalRoute);
+        }
+        return routes;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,242 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Capacity, shift length and time window feasibility of one vehicle's route, with O(1) move checks.
+// The route is depot, customers..., depot. For every prefix nodes[0..p] and suffix nodes[p..end] a summary
+// is kept (Vidal et al. 2013, "A hybrid genetic algorithm with adaptive diversity management"):
+//   duration  minimum duration, service and waiting included
+//   warp      time warp: total lateness if the route is driven anyway (0 = all windows met)
+//   earliest  earliest / latest start of service at the first node that achieves the above
+//   latest
+//   load      total demand
+// Two summaries plus the travel time between them concatenate in O(1), so inserting or removing a
+// customer is checked from two summaries and one or two concatenations instead of re-walking the route
+// (ParallelSearchSolver scores insertions and worst removals this way, DynamicRoutePlanner insertions).
+// Summaries are rebuilt in O(route) by load().
+// violation = load over capacity + time warp + duration over shift length (0 = feasible).
+// Not thread-safe: the result of the last concatenation is kept in fields.
+class RouteFeasibility {
+    private static final double EPS = 1e-6;
+
+    private final TravelTimeMatrix travelTimes;
+    private final List<VRPSolverVisualizer2.GeoPoint> geoPoints;
+    private final int depot;
+    private final Vehicle vehicle;
+
+    private int size;     // Number of nodes including the depot at both ends
+    private int[] nodes;
+    private double[] preDuration, preWarp, preEarliest, preLatest, preLoad;
+    private double[] sufDuration, sufWarp, sufEarliest, sufLatest, sufLoad;
+
+    // Result of the last concat()
+    private double duration, warp, earliest, latest, load;
+
+    public RouteFeasibility(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                            int depotIndex, Vehicle vehicle) {
+        this.travelTimes = travelTimes;
+        this.geoPoints = geoPoints;
+        this.depot = depotIndex;
+        this.vehicle = vehicle;
+        allocate(16);
+        load(new int[0], 0);
+    }
+
+    public RouteFeasibility(RouteFeasibility other) {
+        this.travelTimes = other.travelTimes;
+        this.geoPoints = other.geoPoints;
+        this.depot = other.depot;
+        this.vehicle = other.vehicle;
+        this.size = other.size;
+        this.nodes = other.nodes.clone();
+        this.preDuration = other.preDuration.clone();
+        this.preWarp = other.preWarp.clone();
+        this.preEarliest = other.preEarliest.clone();
+        this.preLatest = other.preLatest.clone();
+        this.preLoad = other.preLoad.clone();
+        this.sufDuration = other.sufDuration.clone();
+        this.sufWarp = other.sufWarp.clone();
+        this.sufEarliest = other.sufEarliest.clone();
+        this.sufLatest = other.sufLatest.clone();
+        this.sufLoad = other.sufLoad.clone();
+    }
+
+    // Route given as its customers (the depot is added at both ends)
+    public void load(int[] customers, int count) {
+        if (nodes.length < count + 2) allocate(Math.max(count + 2, nodes.length * 2));
+        size = count + 2;
+        nodes[0] = depot;
+        System.arraycopy(customers, 0, nodes, 1, count);
+        nodes[size - 1] = depot;
+
+        setNode(nodes[0]);
+        storePrefix(0);
+        for (int p = 1; p < size; p++) {
+            concatPrefixWithNode(p - 1, nodes[p]);
+            storePrefix(p);
+        }
+        setNode(nodes[size - 1]);
+        storeSuffix(size - 1);
+        for (int p = size - 2; p >= 0; p--) {
+            concatNodeWithSuffix(nodes[p], p + 1);
+            storeSuffix(p);
+        }
+    }
+
+    // Route in the vehicleRoutes form (depot first and last)
+    public void load(List<Integer> route) {
+        int[] customers = new int[Math.max(0, route.size() - 2)];
+        for (int p = 1; p < route.size() - 1; p++) {
+            customers[p - 1] = route.get(p);
+        }
+        load(customers, customers.length);
+    }
+
+    // --- O(1) queries; positions are node positions (0 = start depot, size()-1 = end depot) ---
+
+    public int size() { return size; }
+    public double getLoad() { return preLoad[size - 1]; }
+    public double getDuration() { return preDuration[size - 1]; }
+    public double getTimeWarp() { return preWarp[size - 1]; }
+
+    public double violation() {
+        return violation(preDuration[size - 1], preWarp[size - 1], preLoad[size - 1]);
+    }
+
+    public boolean isFeasible() {
+        return violation() <= EPS;
+    }
+
+    // Customer c inserted between nodes p and p+1
+    public double insertionViolation(int c, int p) {
+        concatPrefixWithNode(p, c);
+        concatResultWithSuffix(c, p + 1);
+        return violation(duration, warp, load);
+    }
+
+    // Node p (a customer) removed
+    public double removalViolation(int p) {
+        concatPrefixWithSuffix(p - 1, p + 1);
+        return violation(duration, warp, load);
+    }
+
+    // Violated constraints of the loaded route, walking it once (for reports, not for move evaluation).
+    // The walk leaves the depot at the earliest start of the route summary and never time-warps, so a late
+    // arrival shows up at every stop it delays.
+    public List<String> describeViolations(String vehicleName) {
+        List<String> problems = new ArrayList<>();
+        double routeLoad = getLoad();
+        if (routeLoad > vehicle.capacity + EPS) {
+            problems.add(vehicleName + ": capacity exceeded (load " + format(routeLoad) + " > " + format(vehicle.capacity) + ")");
+        }
+        double time = sufEarliest[0]; // Earliest departure that achieves the minimum duration
+        for (int p = 0; p < size; p++) {
+            VRPSolverVisualizer2.GeoPoint point = geoPoints.get(nodes[p]);
+            if (p > 0) {
+                time += travelTimes.get(nodes[p - 1], nodes[p]);
+                if (time > point.dueTime + EPS) {
+                    problems.add(vehicleName + ": arrives at " + point.label + " at " + format(time)
+                            + ", window closes at " + format(point.dueTime));
+                }
+            }
+            time = Math.max(time, point.readyTime) + serviceOf(nodes[p]);
+        }
+        double routeDuration = getDuration();
+        if (routeDuration > vehicle.shiftLength + EPS) {
+            problems.add(vehicleName + ": shift length exceeded (" + format(routeDuration) + " > "
+                    + format(vehicle.shiftLength) + " minutes)");
+        }
+        return problems;
+    }
+
+    // --- Internals ---
+
+    private double violation(double routeDuration, double timeWarp, double routeLoad) {
+        return Math.max(0, routeLoad - vehicle.capacity) + timeWarp + Math.max(0, routeDuration - vehicle.shiftLength);
+    }
+
+    private double serviceOf(int node) {
+        return node == depot ? 0 : geoPoints.get(node).serviceDuration;
+    }
+
+    // Result = summary of a single node
+    private void setNode(int node) {
+        VRPSolverVisualizer2.GeoPoint point = geoPoints.get(node);
+        duration = serviceOf(node);
+        warp = 0;
+        earliest = point.readyTime;
+        latest = point.dueTime;
+        load = node == depot ? 0 : point.demand;
+    }
+
+    private void concatPrefixWithNode(int p, int node) {
+        VRPSolverVisualizer2.GeoPoint point = geoPoints.get(node);
+        concat(preDuration[p], preWarp[p], preEarliest[p], preLatest[p], preLoad[p], nodes[p],
+               serviceOf(node), 0, point.readyTime, point.dueTime, node == depot ? 0 : point.demand, node);
+    }
+
+    private void concatNodeWithSuffix(int node, int q) {
+        VRPSolverVisualizer2.GeoPoint point = geoPoints.get(node);
+        concat(serviceOf(node), 0, point.readyTime, point.dueTime, node == depot ? 0 : point.demand, node,
+               sufDuration[q], sufWarp[q], sufEarliest[q], sufLatest[q], sufLoad[q], nodes[q]);
+    }
+
+    private void concatPrefixWithSuffix(int p, int q) {
+        concat(preDuration[p], preWarp[p], preEarliest[p], preLatest[p], preLoad[p], nodes[p],
+               sufDuration[q], sufWarp[q], sufEarliest[q], sufLatest[q], sufLoad[q], nodes[q]);
+    }
+
+    // Result (ending at node last) followed by the suffix from q
+    private void concatResultWithSuffix(int last, int q) {
+        concat(duration, warp, earliest, latest, load, last,
+               sufDuration[q], sufWarp[q], sufEarliest[q], sufLatest[q], sufLoad[q], nodes[q]);
+    }
+
+    // Summary of segment 1 (ending at node last1) followed by segment 2 (starting at node first2)
+    private void concat(double d1, double w1, double e1, double l1, double q1, int last1,
+                        double d2, double w2, double e2, double l2, double q2, int first2) {
+        double travel = travelTimes.get(last1, first2);
+        double delta = d1 - w1 + travel;
+        double waiting = Math.max(e2 - delta - l1, 0);
+        double lateness = Math.max(e1 + delta - l2, 0);
+        duration = d1 + d2 + travel + waiting;
+        warp = w1 + w2 + lateness;
+        earliest = Math.max(e2 - delta, e1) - waiting;
+        latest = Math.min(l2 - delta, l1) + lateness;
+        load = q1 + q2;
+    }
+
+    private void storePrefix(int p) {
+        preDuration[p] = duration;
+        preWarp[p] = warp;
+        preEarliest[p] = earliest;
+        preLatest[p] = latest;
+        preLoad[p] = load;
+    }
+
+    private void storeSuffix(int p) {
+        sufDuration[p] = duration;
+        sufWarp[p] = warp;
+        sufEarliest[p] = earliest;
+        sufLatest[p] = latest;
+        sufLoad[p] = load;
+    }
+
+    private void allocate(int capacity) {
+        nodes = nodes == null ? new int[capacity] : Arrays.copyOf(nodes, capacity);
+        preDuration = new double[capacity];
+        preWarp = new double[capacity];
+        preEarliest = new double[capacity];
+        preLatest = new double[capacity];
+        preLoad = new double[capacity];
+        sufDuration = new double[capacity];
+        sufWarp = new double[capacity];
+        sufEarliest = new double[capacity];
+        sufLatest = new double[capacity];
+        sufLoad = new double[capacity];
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
\ No newline at end of file
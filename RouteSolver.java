@@ -0,0 +1,32 @@
+import java.util.List;
+
+// Common interface for VRP route construction/improvement engines.
+// A solver returns one route per vehicle, each starting and ending at the depot,
+// in the same List<List<Integer>> shape used by VRPSolverVisualizer2.vehicleRoutes.
+interface RouteSolver {
+    List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                              int depotIndex, int vehicleCount);
+
+    // One route per vehicle, route r driven by vehicles.get(r). Solvers that do not know about capacity
+    // and shift length plan for vehicles.size() unlimited vehicles; VRPSolution still reports violations.
+    default List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                      int depotIndex, List<Vehicle> vehicles) {
+        return solve(travelTimes, geoPoints, depotIndex, vehicles.size());
+    }
+
+    // Number of candidate moves/insertions scored by the last solve(), for SolveMetrics
+    default long movesEvaluated() {
+        return 0;
+    }
+
+    // Wall-clock budget of one solve() in milliseconds; 0 for solvers that stop on their own
+    default long timeBudgetMillis() {
+        return 0;
+    }
+
+    // The same solver with another budget, for callers that split theirs over several solves;
+    // solvers without a budget return themselves
+    default RouteSolver withTimeBudget(long millis) {
+        return this;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Wall time and allocation per phase of one solve, plus named counters and values, dumpable as JSON.
+// Each phase is also a JFR event (vrp.Phase), and VRPSolver emits one vrp.Solve event per solve, so a
+// recording (java -XX:StartFlightRecording ...) shows the phases next to GC and CPU samples. Events cost
+// nothing when no recording is running.
+// Allocation per phase is measured twice: allocatedBytes counts all threads (parallel phases allocate on
+// pool threads; in a batch run this includes concurrent instances), threadAllocatedBytes only the calling
+// thread. Both are -1 when the JVM cannot measure thread allocation.
+// Not thread-safe: one instance per solve.
+// The command line tools write their JSON summary to the file named by -Dvrp.metrics=<path>.
+class SolveMetrics {
+    static final String OUTPUT_PROPERTY = "vrp.metrics";
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private final String instance;
+    private final List<String> phaseNames = new ArrayList<>();
+    private final List<long[]> phaseValues = new ArrayList<>(); // wall nanos, all-thread bytes, thread bytes
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+    private final Map<String, Double> values = new LinkedHashMap<>();
+    private final ArrayDeque<Phase> open = new ArrayDeque<>();
+
+    public SolveMetrics(String instance) {
+        this.instance = instance;
+    }
+
+    // TravelTimeMatrix times = metrics.time("matrix", () -> build(...)); metrics.time("cpm.calculate", cpm::calculateCPM);
+    // Phases may nest. The phase is closed (and recorded) even when the action throws, so a failed phase
+    // never stays open under the ones that follow.
+    public <T> T time(String name, Supplier<T> action) {
+        begin(name);
+        try {
+            return action.get();
+        } finally {
+            end();
+        }
+    }
+
+    public void time(String name, Runnable action) {
+        begin(name);
+        try {
+            action.run();
+        } finally {
+            end();
+        }
+    }
+
+    // For actions that throw checked exceptions: begin(name); try { ... } finally { end(); }
+    // end() closes the innermost open phase.
+    public void begin(String name) {
+        open.push(new Phase(name));
+    }
+
+    public void end() {
+        if (open.isEmpty()) throw new IllegalStateException("end() without begin()");
+        open.pop().end();
+    }
+
+    public void count(String name, long amount) {
+        counters.merge(name, amount, Long::sum);
+    }
+
+    public void value(String name, double value) {
+        values.put(name, value);
+    }
+
+    public String getInstance() { return instance; }
+
+    public long phaseNanos(String name) {
+        long total = 0;
+        for (int i = 0; i < phaseNames.size(); i++) {
+            if (phaseNames.get(i).equals(name)) total += phaseValues.get(i)[0];
+        }
+        return total;
+    }
+
+    public long totalNanos() {
+        long total = 0;
+        for (long[] phase : phaseValues) {
+            total += phase[0];
+        }
+        return total;
+    }
+
+    public long counter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    public double value(String name) {
+        return values.getOrDefault(name, Double.NaN);
+    }
+
+    // {"instance":...,"phases":[{"name":...,"wallMs":...,"allocatedBytes":...,"threadAllocatedBytes":...}],
+    //  "counters":{...},"values":{...}}
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"instance\":");
+        appendString(json, instance);
+        json.append(",\"phases\":[");
+        for (int i = 0; i < phaseNames.size(); i++) {
+            long[] phase = phaseValues.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"name\":");
+            appendString(json, phaseNames.get(i));
+            json.append(",\"wallMs\":");
+            appendNumber(json, phase[0] / 1e6);
+            json.append(",\"allocatedBytes\":").append(phase[1]);
+            json.append(",\"threadAllocatedBytes\":").append(phase[2]).append('}');
+        }
+        json.append("],\"counters\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            appendString(json, counter.getKey());
+            json.append(':').append(counter.getValue());
+        }
+        json.append("},\"values\":{");
+        first = true;
+        for (Map.Entry<String, Double> value : values.entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            appendString(json, value.getKey());
+            json.append(':');
+            appendNumber(json, value.getValue());
+        }
+        return json.append("}}").toString();
+    }
+
+    static void appendString(StringBuilder json, String s) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    // JSON has no NaN or Infinity
+    static void appendNumber(StringBuilder json, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            json.append("null");
+        } else {
+            json.append(value);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+
+    // One timed phase; end() records it and commits the JFR event
+    private final class Phase {
+        private final String name;
+        private final PhaseEvent event = new PhaseEvent();
+        private final long startNanos, startAllocated, startThreadAllocated;
+
+        private Phase(String name) {
+            this.name = name;
+            event.begin();
+            startAllocated = THREADS == null ? 0 : THREADS.getTotalThreadAllocatedBytes();
+            startThreadAllocated = THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+            startNanos = System.nanoTime();
+        }
+
+        void end() {
+            long wall = System.nanoTime() - startNanos;
+            long allocated = THREADS == null ? -1 : THREADS.getTotalThreadAllocatedBytes() - startAllocated;
+            long threadAllocated = THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes() - startThreadAllocated;
+            phaseNames.add(name);
+            phaseValues.add(new long[] {wall, allocated, threadAllocated});
+            event.end();
+            if (event.shouldCommit()) {
+                event.instance = instance;
+                event.phase = name;
+                event.allocated = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    @Name("vrp.Phase")
+    @Label("VRP Solve Phase")
+    @Category("VRP")
+    @Description("One phase of a VRP solve: matrix, routes, CPM, printing")
+    static class PhaseEvent extends Event {
+        @Label("Instance")
+        String instance;
+        @Label("Phase")
+        String phase;
+        @Label("Allocated (all threads)")
+        @DataAmount
+        long allocated;
+    }
+
+    @Name("vrp.Solve")
+    @Label("VRP Solve")
+    @Category("VRP")
+    @Description("Summary of one VRP solve")
+    static class SolveEvent extends Event {
+        @Label("Instance")
+        String instance;
+        @Label("Points")
+        int points;
+        @Label("Vehicles")
+        int vehicles;
+        @Label("Moves Evaluated")
+        long movesEvaluated;
+        @Label("CPM Edge Relaxations")
+        long cpmRelaxations;
+        @Label("Makespan (minutes)")
+        double makespan;
+        @Label("Violations")
+        int violations;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+// Average speed by time of day: one speed per fixed-length slot (e.g. 24 one-hour slots), repeating daily.
+// Time 0 of a plan is the shift start; shiftStartClock says which clock minute (after midnight) that is.
+// Travel time for a distance and a departure time drives through the slots, each at its own speed
+// (Ichoua, Gendreau & Potvin 2003), so a trip that starts later never arrives earlier (FIFO), unlike
+// simply multiplying by the speed factor of the departure slot. A trip crosses at most a few slots, so
+// a lookup is O(1).
+class SpeedProfile {
+    static final String SHIFT_START_PROPERTY = "vrp.shiftStart"; // e.g. -Dvrp.shiftStart=07:00
+
+    private static final double DAY_MINUTES = 24 * 60;
+
+    // Kecepatan rata-rata asumsi per jam untuk Surabaya (km/jam): macet pagi 06-09 dan sore 16-19,
+    // rata-rata siang sekitar VRPSolver.AVERAGE_SPEED_KM_PER_HOUR
+    private static final double[] SURABAYA_HOURLY = {
+        35, 35, 35, 35, 35, 30,  // 00-06
+        18, 12, 14, 20, 22, 21,  // 06-12
+        19, 20, 21, 18, 13, 12,  // 12-18
+        15, 22, 26, 30, 32, 34   // 18-24
+    };
+
+    private final double[] speedKmPerMinute;
+    private final double slotMinutes;
+    private final double shiftStartClock;
+
+    public SpeedProfile(double[] speedKmPerHour, double shiftStartClock) {
+        if (speedKmPerHour.length == 0 || DAY_MINUTES % speedKmPerHour.length != 0) {
+            throw new IllegalArgumentException("Slot count must divide a day of 1440 minutes: " + speedKmPerHour.length);
+        }
+        this.speedKmPerMinute = new double[speedKmPerHour.length];
+        for (int s = 0; s < speedKmPerHour.length; s++) {
+            if (!(speedKmPerHour[s] > 0)) {
+                throw new IllegalArgumentException("Speed of slot " + s + " must be positive: " + speedKmPerHour[s]);
+            }
+            speedKmPerMinute[s] = speedKmPerHour[s] / 60;
+        }
+        this.slotMinutes = DAY_MINUTES / speedKmPerHour.length;
+        this.shiftStartClock = shiftStartClock;
+    }
+
+    public static SpeedProfile surabaya(double shiftStartClock) {
+        return new SpeedProfile(SURABAYA_HOURLY, shiftStartClock);
+    }
+
+    // The Surabaya profile when -Dvrp.shiftStart=HH:MM is set, otherwise null (constant speed)
+    public static SpeedProfile fromSystemProperty() {
+        String start = System.getProperty(SHIFT_START_PROPERTY);
+        if (start == null) return null;
+        String[] parts = start.trim().split(":");
+        double clock = Integer.parseInt(parts[0]) * 60 + (parts.length > 1 ? Integer.parseInt(parts[1]) : 0);
+        return surabaya(clock);
+    }
+
+    public double getShiftStartClock() { return shiftStartClock; }
+
+    // Minutes needed for distanceKm when leaving at the given time (minutes since shift start)
+    public double travelTime(double distanceKm, double departure) {
+        double clock = (shiftStartClock + departure) % DAY_MINUTES;
+        if (clock < 0) clock += DAY_MINUTES;
+        double remaining = distanceKm, time = 0;
+        while (true) {
+            int slot = (int) (clock / slotMinutes);
+            if (slot == speedKmPerMinute.length) slot = 0; // Rounding at the very end of the day
+            double speed = speedKmPerMinute[slot];
+            double slotLeft = (slot + 1) * slotMinutes - clock;
+            if (remaining <= slotLeft * speed) {
+                return time + remaining / speed;
+            }
+            remaining -= slotLeft * speed;
+            time += slotLeft;
+            clock = slot + 1 == speedKmPerMinute.length ? 0 : (slot + 1) * slotMinutes;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+import java.util.List;
+
+// Runs any RouteSolver on time-dependent travel times.
+// Solvers score moves with get(i, j) in O(1), so they cannot follow departure times that shift with every
+// move. Instead they are given TimeDependentTravelTimes.forSolvers(...): legs use the departure times of
+// the previous solution. The first solve assumes every point departs at shift start; each refinement
+// round re-solves with the departure times of the best solution so far and keeps the result if its
+// real total travel time (legs at their actual departure times) is lower.
+// A solver with a time budget (ParallelSearchSolver) gets the whole budget for all rounds together: each
+// round runs with the time left divided by the rounds still to come, so a round that stops early passes
+// its time on, and no refinement starts once the budget is used up.
+// Other travel time stores are passed straight to the wrapped solver.
+class TimeDependentSolver implements RouteSolver {
+    static final int REFINEMENT_ROUNDS = 2;
+
+    private final RouteSolver solver;
+    private long movesEvaluated;
+
+    public TimeDependentSolver(RouteSolver solver) {
+        this.solver = solver;
+    }
+
+    @Override
+    public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                     int depotIndex, int vehicleCount) {
+        return solve(travelTimes, geoPoints, depotIndex, vehicleCount, null);
+    }
+
+    @Override
+    public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                     int depotIndex, List<Vehicle> vehicles) {
+        return solve(travelTimes, geoPoints, depotIndex, vehicles.size(), vehicles);
+    }
+
+    private List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                      int depotIndex, int vehicleCount, List<Vehicle> vehicles) {
+        if (!(travelTimes instanceof TimeDependentTravelTimes timeDependent)) {
+            List<List<Integer>> routes = solve(solver, travelTimes, geoPoints, depotIndex, vehicleCount, vehicles);
+            movesEvaluated = solver.movesEvaluated();
+            return routes;
+        }
+        long budget = solver.timeBudgetMillis(), deadline = System.nanoTime() + budget * 1_000_000L;
+        TravelTimeMatrix atShiftStart = timeDependent.atDepartures(new double[travelTimes.size()]); // One departure time: symmetric
+        RouteSolver roundSolver = budget > 0 ? solver.withTimeBudget(budget / (REFINEMENT_ROUNDS + 1)) : solver;
+        List<List<Integer>> best = solve(roundSolver, atShiftStart, geoPoints, depotIndex, vehicleCount, vehicles);
+        movesEvaluated = roundSolver.movesEvaluated();
+        double bestCost = totalTravelTime(timeDependent, best, geoPoints, depotIndex);
+        for (int round = 0; round < REFINEMENT_ROUNDS; round++) {
+            if (budget > 0) {
+                long left = (deadline - System.nanoTime()) / 1_000_000L;
+                if (left <= 0) break;
+                roundSolver = solver.withTimeBudget(left / (REFINEMENT_ROUNDS - round));
+            }
+            TravelTimeMatrix estimate = timeDependent.forSolvers(best, geoPoints, depotIndex);
+            List<List<Integer>> routes = solve(roundSolver, estimate, geoPoints, depotIndex, vehicleCount, vehicles);
+            movesEvaluated += roundSolver.movesEvaluated();
+            double cost = totalTravelTime(timeDependent, routes, geoPoints, depotIndex);
+            if (cost >= bestCost) break;
+            best = routes;
+            bestCost = cost;
+        }
+        return best;
+    }
+
+    @Override
+    public long movesEvaluated() {
+        return movesEvaluated;
+    }
+
+    private static List<List<Integer>> solve(RouteSolver solver, TravelTimeMatrix travelTimes,
+                                             List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex,
+                                             int vehicleCount, List<Vehicle> vehicles) {
+        return vehicles == null
+                ? solver.solve(travelTimes, geoPoints, depotIndex, vehicleCount)
+                : solver.solve(travelTimes, geoPoints, depotIndex, vehicles);
+    }
+
+    private static double totalTravelTime(TravelTimeMatrix travelTimes, List<List<Integer>> routes,
+                                          List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex) {
+        double total = 0;
+        for (List<Integer> route : routes) {
+            for (double leg : TravelTimeMatrix.legTimes(travelTimes, route, geoPoints, depotIndex)) {
+                total += leg;
+            }
+        }
+        return total;
+    }
+}
\ No newline at end of file
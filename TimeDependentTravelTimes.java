@@ -0,0 +1,133 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Travel times that depend on the departure time: a base matrix (any storage, computed at a reference
+// speed) plus a SpeedProfile. The base time is turned back into a distance and driven through the
+// profile's slots, so memory is the base matrix alone and a lookup stays O(1).
+// get(i, j) is the time when leaving at shift start; get(i, j, departure) is the real one.
+// Route solvers score moves with plain get(i, j) lookups, so they are given a view with the departure
+// times of a known schedule fixed (see TimeDependentSolver and forSolvers()).
+class TimeDependentTravelTimes implements TravelTimeMatrix {
+    private final TravelTimeMatrix base;
+    private final SpeedProfile profile;
+    private final double kmPerBaseMinute;
+
+    public TimeDependentTravelTimes(TravelTimeMatrix base, double baseSpeedKmPerHour, SpeedProfile profile) {
+        this.base = base;
+        this.profile = profile;
+        this.kmPerBaseMinute = baseSpeedKmPerHour / 60;
+    }
+
+    @Override
+    public int size() {
+        return base.size();
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return get(i, j, 0);
+    }
+
+    @Override
+    public double get(int i, int j, double departure) {
+        if (i == j) return 0;
+        return profile.travelTime(base.get(i, j) * kmPerBaseMinute, departure);
+    }
+
+    public TravelTimeMatrix getBase() { return base; }
+    public SpeedProfile getProfile() { return profile; }
+    public double getBaseSpeed() { return kmPerBaseMinute * 60; }
+
+    // Departure time of every point in the given routes (depot first and last): vehicles leave the
+    // depot at shift start, wait for ready times and serve each customer. Unrouted points and the
+    // depot get 0.
+    public double[] departureTimes(List<List<Integer>> vehicleRoutes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                   int depotIndex) {
+        double[] departure = new double[size()];
+        for (List<Integer> route : vehicleRoutes) {
+            double clock = 0;
+            for (int j = 0; j < route.size() - 1; j++) {
+                int next = route.get(j + 1);
+                clock += get(route.get(j), next, clock);
+                if (next != depotIndex) {
+                    VRPSolverVisualizer2.GeoPoint point = geoPoints.get(next);
+                    clock = Math.max(clock, point.readyTime) + point.serviceDuration;
+                    departure[next] = clock;
+                }
+            }
+        }
+        return departure;
+    }
+
+    // Exact view of one schedule: get(i, j) = get(i, j, departure[i]), so walking the routes the
+    // departures came from gives their real leg times. Asymmetric; for reports and feasibility checks.
+    public TravelTimeMatrix atDepartures(double[] departure) {
+        return view(Arrays.copyOf(departure, size()), null, -1);
+    }
+
+    // Symmetric view for route solvers (2-opt and savings reverse routes, which assumes get(i, j) == get(j, i)).
+    // A leg between customers uses the earlier departure of the two, a depot leg uses 0 for customers
+    // that start a route and the customer's departure otherwise. For the legs of the given routes this is
+    // their real time, except the way back of a route with a single customer.
+    public TravelTimeMatrix forSolvers(List<List<Integer>> vehicleRoutes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                       int depotIndex) {
+        double[] departure = departureTimes(vehicleRoutes, geoPoints, depotIndex);
+        double[] depotLeg = departure.clone();
+        for (List<Integer> route : vehicleRoutes) {
+            if (route.size() > 2) depotLeg[route.get(1)] = 0;
+        }
+        return view(departure, depotLeg, depotIndex);
+    }
+
+    private TravelTimeMatrix view(double[] departure, double[] depotLeg, int depotIndex) {
+        return base instanceof NeighborLists
+                ? new GranularDepartureView(this, departure, depotLeg, depotIndex, (NeighborLists) base)
+                : new DepartureView(this, departure, depotLeg, depotIndex);
+    }
+
+    static class DepartureView implements TravelTimeMatrix {
+        private final TimeDependentTravelTimes times;
+        private final double[] departure;
+        private final double[] depotLeg; // null = exact (asymmetric) view
+        private final int depot;
+
+        DepartureView(TimeDependentTravelTimes times, double[] departure, double[] depotLeg, int depot) {
+            this.times = times;
+            this.departure = departure;
+            this.depotLeg = depotLeg;
+            this.depot = depot;
+        }
+
+        @Override
+        public int size() {
+            return departure.length;
+        }
+
+        @Override
+        public double get(int i, int j) {
+            if (depotLeg == null) return times.get(i, j, departure[i]);
+            double t = i == depot ? depotLeg[j] : j == depot ? depotLeg[i] : Math.min(departure[i], departure[j]);
+            return times.get(i, j, t);
+        }
+    }
+
+    static class GranularDepartureView extends DepartureView implements NeighborLists {
+        private final NeighborLists lists;
+
+        GranularDepartureView(TimeDependentTravelTimes times, double[] departure, double[] depotLeg, int depot,
+                              NeighborLists lists) {
+            super(times, departure, depotLeg, depot);
+            this.lists = lists;
+        }
+
+        @Override
+        public int neighborCount(int i) {
+            return lists.neighborCount(i);
+        }
+
+        @Override
+        public int neighbor(int i, int rank) {
+            return lists.neighbor(i, rank);
+        }
+    }
+}
\ No newline at end of file
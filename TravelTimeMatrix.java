@@ -0,0 +1,42 @@
+import java.util.List;
+
+// Read-only access to the travel time (in minutes) between two location indices.
+// Solvers and the CPM analysis go through this accessor so the backing storage
+// (full double matrix, float matrix, upper triangle, sparse neighbour store...) can change freely.
+interface TravelTimeMatrix {
+
+    // How a dense matrix is laid out in memory
+    enum Storage {
+        DOUBLE,         // n*n doubles in one contiguous array
+        FLOAT,          // n*n floats, half the memory of DOUBLE
+        FLOAT_TRIANGLE  // Upper triangle only (symmetric matrix), about a quarter of DOUBLE
+    }
+
+    int size();
+
+    double get(int i, int j);
+
+    // Travel time when leaving i at the given time (minutes since shift start). The same as get(i, j)
+    // unless the times depend on the time of day (TimeDependentTravelTimes).
+    default double get(int i, int j, double departure) {
+        return get(i, j);
+    }
+
+    // Travel time of every leg of a route (depot first and last; legs[j] goes from route[j] to route[j+1])
+    // when the vehicle leaves the depot at shift start, waits for ready times and serves each customer
+    static double[] legTimes(TravelTimeMatrix travelTimes, List<Integer> route,
+                             List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex) {
+        double[] legs = new double[Math.max(0, route.size() - 1)];
+        double clock = 0;
+        for (int j = 0; j < legs.length; j++) {
+            int next = route.get(j + 1);
+            legs[j] = travelTimes.get(route.get(j), next, clock);
+            clock += legs[j];
+            if (next != depotIndex) {
+                VRPSolverVisualizer2.GeoPoint point = geoPoints.get(next);
+                clock = Math.max(clock, point.readyTime) + point.serviceDuration;
+            }
+        }
+        return legs;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Builds a dense travel time matrix from geographic points.
+// - Radians and cos(lat) are computed once per point instead of once per pair.
+// - Only the upper half (i < j) is computed; the haversine distance is symmetric.
+// - Results go into a single contiguous primitive array.
+// - Rows are filled in parallel; row k is paired with row n-1-k so every task does about the same work.
+class TravelTimeMatrixBuilder {
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private final int n;
+    private final double[] latRad, lonRad, cosLat;
+    private final double minutesPerKm;
+
+    public TravelTimeMatrixBuilder(List<VRPSolverVisualizer2.GeoPoint> geoPoints, double averageSpeedKmPerHour) {
+        this.n = geoPoints.size();
+        this.latRad = new double[n];
+        this.lonRad = new double[n];
+        this.cosLat = new double[n];
+        for (int i = 0; i < n; i++) {
+            VRPSolverVisualizer2.GeoPoint p = geoPoints.get(i);
+            latRad[i] = Math.toRadians(p.lat);
+            lonRad[i] = Math.toRadians(p.lon);
+            cosLat[i] = Math.cos(latRad[i]);
+        }
+        this.minutesPerKm = 60 / averageSpeedKmPerHour;
+    }
+
+    public TravelTimeMatrix build(TravelTimeMatrix.Storage storage) {
+        switch (storage) {
+            case DOUBLE: {
+                double[] data = new double[checkedSize((long) n * n, storage)];
+                forEachRowParallel(i -> {
+                    for (int j = i + 1; j < n; j++) {
+                        double t = travelTime(i, j);
+                        data[i * n + j] = t;
+                        data[j * n + i] = t;
+                    }
+                });
+                return new DoubleMatrix(n, data);
+            }
+            case FLOAT: {
+                float[] data = new float[checkedSize((long) n * n, storage)];
+                forEachRowParallel(i -> {
+                    for (int j = i + 1; j < n; j++) {
+                        float t = (float) travelTime(i, j);
+                        data[i * n + j] = t;
+                        data[j * n + i] = t;
+                    }
+                });
+                return new FloatMatrix(n, data);
+            }
+            case FLOAT_TRIANGLE: {
+                float[] data = new float[checkedSize((long) n * (n - 1) / 2, storage)];
+                forEachRowParallel(i -> {
+                    int base = TriangleMatrix.rowOffset(i, n);
+                    for (int j = i + 1; j < n; j++) {
+                        data[base + j] = (float) travelTime(i, j);
+                    }
+                });
+                return new TriangleMatrix(n, data);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown storage: " + storage);
+        }
+    }
+
+    // Travel time in minutes between points i and j (haversine distance with precomputed trig)
+    double travelTime(int i, int j) {
+        double sinLat = Math.sin((latRad[j] - latRad[i]) / 2);
+        double sinLon = Math.sin((lonRad[j] - lonRad[i]) / 2);
+        double a = sinLat * sinLat + cosLat[i] * cosLat[j] * sinLon * sinLon;
+        double distanceKm = EARTH_RADIUS_KM * 2 * Math.asin(Math.min(1, Math.sqrt(a)));
+        return distanceKm * minutesPerKm;
+    }
+
+    void forEachRowParallel(IntConsumer row) {
+        IntStream.range(0, (n + 1) / 2).parallel().forEach(k -> {
+            row.accept(k);
+            if (n - 1 - k != k) {
+                row.accept(n - 1 - k);
+            }
+        });
+    }
+
+    private static int checkedSize(long size, TravelTimeMatrix.Storage storage) {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many points for " + storage + " storage (" + size + " cells)");
+        }
+        return (int) size;
+    }
+
+    // --- Storage implementations ---
+
+    private static final class DoubleMatrix implements TravelTimeMatrix {
+        private final int n;
+        private final double[] data;
+
+        DoubleMatrix(int n, double[] data) {
+            this.n = n;
+            this.data = data;
+        }
+
+        @Override public int size() { return n; }
+        @Override public double get(int i, int j) { return data[i * n + j]; }
+    }
+
+    private static final class FloatMatrix implements TravelTimeMatrix {
+        private final int n;
+        private final float[] data;
+
+        FloatMatrix(int n, float[] data) {
+            this.n = n;
+            this.data = data;
+        }
+
+        @Override public int size() { return n; }
+        @Override public double get(int i, int j) { return data[i * n + j]; }
+    }
+
+    private static final class TriangleMatrix implements TravelTimeMatrix {
+        private final int n;
+        private final float[] data;
+
+        TriangleMatrix(int n, float[] data) {
+            this.n = n;
+            this.data = data;
+        }
+
+        // Index of cell (i, j) for j > i is rowOffset(i, n) + j
+        static int rowOffset(int i, int n) {
+            return (int) ((long) i * (2L * n - i - 1) / 2 - i - 1);
+        }
+
+        @Override public int size() { return n; }
+
+        @Override
+        public double get(int i, int j) {
+            if (i == j) return 0;
+            return i < j ? data[rowOffset(i, n) + j] : data[rowOffset(j, n) + i];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// On-disk cache of the travel time matrix, memory-mapped with NIO.
+// File layout (little endian):
+//   0  long  MAGIC
+//   8  int   VERSION
+//   12 int   n (number of points)
+//   16 long  fingerprint of the coordinates and average speed
+//   24 ...   reserved up to HEADER_BYTES
+//   HEADER_BYTES.. float upper triangle (i < j), row by row, same order as TravelTimeMatrix.Storage.FLOAT_TRIANGLE
+// When the file exists and the fingerprint matches the current points, it is simply mapped (no haversine
+// work at all). Otherwise the matrix is computed in parallel straight into a new mapping of the file;
+// the header is written last, so an interrupted build is never mistaken for a valid cache.
+class TravelTimeMatrixCache {
+    private static final long MAGIC = 0x56525054544D3031L; // "VRPTTM01"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int CHUNK_SHIFT = 28;              // 2^28 floats (1 GiB) per mapping
+    private static final long CHUNK_FLOATS = 1L << CHUNK_SHIFT;
+
+    public static TravelTimeMatrix loadOrBuild(Path file, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                               double averageSpeedKmPerHour) throws IOException {
+        int n = geoPoints.size();
+        long fingerprint = fingerprint(geoPoints, averageSpeedKmPerHour);
+        if (Files.exists(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (isValid(channel, n, fingerprint)) {
+                    return new MappedTriangleMatrix(n, map(channel, FileChannel.MapMode.READ_ONLY, n));
+                }
+            }
+        }
+        return build(file, geoPoints, averageSpeedKmPerHour, fingerprint);
+    }
+
+    private static TravelTimeMatrix build(Path file, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                          double averageSpeedKmPerHour, long fingerprint) throws IOException {
+        int n = geoPoints.size();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer[] mappings = mapBytes(channel, FileChannel.MapMode.READ_WRITE, n);
+            FloatBuffer[] chunks = asFloats(mappings);
+
+            TravelTimeMatrixBuilder builder = new TravelTimeMatrixBuilder(geoPoints, averageSpeedKmPerHour);
+            builder.forEachRowParallel(i -> {
+                long base = MappedTriangleMatrix.rowOffset(i, n);
+                for (int j = i + 1; j < n; j++) {
+                    long index = base + j;
+                    chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & (CHUNK_FLOATS - 1)), (float) builder.travelTime(i, j));
+                }
+            });
+            for (MappedByteBuffer mapping : mappings) {
+                mapping.force();
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION).putInt(n).putLong(fingerprint).rewind();
+            channel.write(header, 0);
+            channel.force(true);
+            return new MappedTriangleMatrix(n, chunks);
+        }
+    }
+
+    private static boolean isValid(FileChannel channel, int n, long fingerprint) throws IOException {
+        if (channel.size() != HEADER_BYTES + triangleSize(n) * Float.BYTES) return false;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        return header.getLong() == MAGIC && header.getInt() == VERSION && header.getInt() == n
+                && header.getLong() == fingerprint;
+    }
+
+    private static FloatBuffer[] map(FileChannel channel, FileChannel.MapMode mode, int n) throws IOException {
+        return asFloats(mapBytes(channel, mode, n));
+    }
+
+    private static MappedByteBuffer[] mapBytes(FileChannel channel, FileChannel.MapMode mode, int n) throws IOException {
+        long cells = triangleSize(n);
+        int chunkCount = (int) Math.max(1, (cells + CHUNK_FLOATS - 1) / CHUNK_FLOATS);
+        MappedByteBuffer[] mappings = new MappedByteBuffer[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            long first = c * CHUNK_FLOATS;
+            long count = Math.min(CHUNK_FLOATS, cells - first);
+            mappings[c] = channel.map(mode, HEADER_BYTES + first * Float.BYTES, count * Float.BYTES);
+        }
+        return mappings;
+    }
+
+    private static FloatBuffer[] asFloats(MappedByteBuffer[] mappings) {
+        FloatBuffer[] chunks = new FloatBuffer[mappings.length];
+        for (int c = 0; c < mappings.length; c++) {
+            chunks[c] = mappings[c].order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        }
+        return chunks;
+    }
+
+    private static long triangleSize(int n) {
+        return (long) n * (n - 1) / 2;
+    }
+
+    // Identifies the coordinate set: any change to a point, the point order or the speed gives a new value
+    static long fingerprint(List<VRPSolverVisualizer2.GeoPoint> geoPoints, double averageSpeedKmPerHour) {
+        long h = 0x9E3779B97F4A7C15L ^ geoPoints.size();
+        h = mix(h, Double.doubleToLongBits(averageSpeedKmPerHour));
+        for (VRPSolverVisualizer2.GeoPoint p : geoPoints) {
+            h = mix(h, Double.doubleToLongBits(p.lat));
+            h = mix(h, Double.doubleToLongBits(p.lon));
+        }
+        return h;
+    }
+
+    private static long mix(long h, long value) {
+        h ^= value;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 31);
+    }
+
+    // Read view over the mapped upper triangle
+    private static final class MappedTriangleMatrix implements TravelTimeMatrix {
+        private final int n;
+        private final FloatBuffer[] chunks;
+
+        MappedTriangleMatrix(int n, FloatBuffer[] chunks) {
+            this.n = n;
+            this.chunks = chunks;
+        }
+
+        // Index of cell (i, j) for j > i is rowOffset(i, n) + j
+        static long rowOffset(int i, int n) {
+            return (long) i * (2L * n - i - 1) / 2 - i - 1;
+        }
+
+        @Override
+        public int size() {
+            return n;
+        }
+
+        @Override
+        public double get(int i, int j) {
+            if (i == j) return 0;
+            long index = i < j ? rowOffset(i, n) + j : rowOffset(j, n) + i;
+            return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & (CHUNK_FLOATS - 1)));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless batch mode: solves every *.csv instance (GeoPointCsvLoader format, point 0 = depot) in a
+// directory concurrently.
+// Each instance gets its own virtual thread for the blocking parts (reading the file, waiting).
+// The compute stages (travel times, routes, CPM) run on a fixed pool of platform threads, one per
+// core by default, so a directory of thousands of instances never oversubscribes the CPU.
+// Prints per-instance latency (from batch start, so queueing behind the CPU pool is included) next to
+// the pure compute time, and the overall throughput.
+// With -Dvrp.metrics=<file> the per-instance SolveMetrics and the batch totals are also written as JSON.
+//
+// With -Dvrp.export=<dir> every solved instance is also written there as <name>-routes.csv,
+// <name>-activities.csv and <name>-solution.json (ResultExporter), on the instance's virtual thread.
+// -Dvrp.shiftStart=HH:MM switches to time-of-day travel times (SpeedProfile.surabaya).
+// regions > 1 solves every instance with DecompositionSolver (sweep partition) instead of one LocalSearchSolver.
+//
+// Usage: VRPBatchRunner <instance-dir> [vehicleCount] [cpuThreads] [regions]
+class VRPBatchRunner {
+    private final VRPSolver solver;
+    private final int vehicleCount;
+    private final int cpuThreads;
+    private final Path exportDirectory; // null = no export
+
+    VRPBatchRunner(VRPSolver solver, int vehicleCount, int cpuThreads) {
+        this(solver, vehicleCount, cpuThreads, null);
+    }
+
+    VRPBatchRunner(VRPSolver solver, int vehicleCount, int cpuThreads, Path exportDirectory) {
+        this.solver = solver;
+        this.vehicleCount = vehicleCount;
+        this.cpuThreads = cpuThreads;
+        this.exportDirectory = exportDirectory;
+    }
+
+    // Outcome of one instance; solution is null when it failed
+    static class InstanceResult {
+        final Path file;
+        final VRPSolution solution;
+        final Throwable error;
+        final long loadNanos, computeNanos, latencyNanos;
+
+        InstanceResult(Path file, VRPSolution solution, Throwable error, long loadNanos, long computeNanos, long latencyNanos) {
+            this.file = file;
+            this.solution = solution;
+            this.error = error;
+            this.loadNanos = loadNanos;
+            this.computeNanos = computeNanos;
+            this.latencyNanos = latencyNanos;
+        }
+    }
+
+    public List<InstanceResult> run(List<Path> files) throws InterruptedException {
+        long batchStart = System.nanoTime();
+        List<InstanceResult> results = new ArrayList<>(files.size());
+        try (ExecutorService cpuPool = Executors.newFixedThreadPool(cpuThreads);
+             ExecutorService perInstance = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<InstanceResult>> pending = new ArrayList<>(files.size());
+            for (Path file : files) {
+                pending.add(perInstance.submit(() -> solveInstance(file, cpuPool, batchStart)));
+            }
+            for (Future<InstanceResult> future : pending) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause()); // solveInstance reports its own failures
+                }
+            }
+        }
+        return results;
+    }
+
+    // Runs on a virtual thread: blocking I/O here, computation handed to the CPU pool
+    private InstanceResult solveInstance(Path file, ExecutorService cpuPool, long batchStart) throws InterruptedException {
+        long start = System.nanoTime();
+        long loadNanos = 0, computeNanos = 0;
+        try {
+            List<VRPSolverVisualizer2.GeoPoint> geoPoints = GeoPointCsvLoader.load(file);
+            loadNanos = System.nanoTime() - start;
+            if (geoPoints.size() < 2) {
+                throw new IOException("need a depot and at least one customer, found " + geoPoints.size() + " points");
+            }
+            SolveMetrics metrics = new SolveMetrics(file.getFileName().toString());
+            Future<VRPSolution> solved = cpuPool.submit(() -> solver.solve(geoPoints, 0, vehicleCount, metrics));
+            VRPSolution solution = solved.get();
+            computeNanos = metrics.totalNanos();
+            if (exportDirectory != null) {
+                String name = file.getFileName().toString();
+                new ResultExporter(solution).writeAll(exportDirectory, name.substring(0, name.length() - ".csv".length()) + "-");
+            }
+            return new InstanceResult(file, solution, null, loadNanos, computeNanos, System.nanoTime() - batchStart);
+        } catch (IOException | RuntimeException e) {
+            // A bad file or a solver failure (e.g. an invalid instance) fails this instance, not the batch
+            return new InstanceResult(file, null, e, loadNanos, computeNanos, System.nanoTime() - batchStart);
+        } catch (ExecutionException e) {
+            return new InstanceResult(file, null, e.getCause(), loadNanos, computeNanos, System.nanoTime() - batchStart);
+        }
+    }
+
+    static List<Path> listInstances(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.csv")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: VRPBatchRunner <instance-dir> [vehicleCount] [cpuThreads] [regions]");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        int vehicleCount = args.length > 1 ? Integer.parseInt(args[1]) : VRPSolverVisualizer2.VEHICLE_COUNT;
+        int cpuThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int regions = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        SpeedProfile speedProfile = SpeedProfile.fromSystemProperty();
+        VRPSolver solver = regions > 1
+                ? new VRPSolver(() -> new DecompositionSolver(LocalSearchSolver::new, DecompositionSolver.Partition.SWEEP, regions),
+                                speedProfile)
+                : new VRPSolver(LocalSearchSolver::new, speedProfile);
+
+        List<Path> files = listInstances(directory);
+        System.out.println("--- Batch: " + files.size() + " instances, " + vehicleCount + " vehicles, "
+                + cpuThreads + " CPU threads" + (regions > 1 ? ", " + regions + " regions" : "") + " ---");
+        long start = System.nanoTime();
+        String export = System.getProperty(ResultExporter.EXPORT_PROPERTY);
+        List<InstanceResult> results = new VRPBatchRunner(solver, vehicleCount, cpuThreads,
+                export == null ? null : Paths.get(export)).run(files);
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(String.format("%-30s | %7s | %10s | %10s | %10s | %9s | %9s | %10s",
+                "Instance", "Points", "Makespan", "Travel", "Violations", "Load ms", "Solve ms", "Latency ms"));
+        int solved = 0;
+        long totalPoints = 0;
+        for (InstanceResult r : results) {
+            String name = r.file.getFileName().toString();
+            if (r.solution == null) {
+                System.out.println(String.format("%-30s | FAILED: %s", name, r.error));
+                continue;
+            }
+            solved++;
+            totalPoints += r.solution.getGeoPoints().size();
+            System.out.println(String.format("%-30s | %7d | %10.2f | %10.2f | %10d | %9.1f | %9.1f | %10.1f",
+                    name, r.solution.getGeoPoints().size(), r.solution.getProjectDuration(), r.solution.totalTravelTime(),
+                    r.solution.getViolations().size(), r.loadNanos / 1e6, r.computeNanos / 1e6, r.latencyNanos / 1e6));
+        }
+        System.out.println(String.format("Solved %d/%d in %.2f s: %.2f instances/s, %.0f points/s",
+                solved, results.size(), wallSeconds, solved / wallSeconds, totalPoints / wallSeconds));
+        String metricsFile = System.getProperty(SolveMetrics.OUTPUT_PROPERTY);
+        if (metricsFile != null) {
+            Files.writeString(Paths.get(metricsFile), toJson(results, wallSeconds), StandardCharsets.UTF_8);
+        }
+        if (solved < results.size()) {
+            System.exit(1);
+        }
+    }
+
+    // {"batch":{...throughput...},"instances":[{"file":...,"loadMs":...,"latencyMs":...,"metrics":{...}}]}
+    static String toJson(List<InstanceResult> results, double wallSeconds) {
+        int solved = 0;
+        long totalPoints = 0;
+        StringBuilder instances = new StringBuilder(256 * results.size());
+        for (InstanceResult r : results) {
+            if (instances.length() > 0) instances.append(',');
+            instances.append("{\"file\":");
+            SolveMetrics.appendString(instances, r.file.getFileName().toString());
+            instances.append(",\"loadMs\":");
+            SolveMetrics.appendNumber(instances, r.loadNanos / 1e6);
+            instances.append(",\"computeMs\":");
+            SolveMetrics.appendNumber(instances, r.computeNanos / 1e6);
+            instances.append(",\"latencyMs\":");
+            SolveMetrics.appendNumber(instances, r.latencyNanos / 1e6);
+            if (r.solution == null) {
+                instances.append(",\"error\":");
+                SolveMetrics.appendString(instances, String.valueOf(r.error));
+            } else {
+                solved++;
+                totalPoints += r.solution.getGeoPoints().size();
+                instances.append(",\"metrics\":").append(r.solution.getMetrics().toJson());
+            }
+            instances.append('}');
+        }
+        StringBuilder json = new StringBuilder(instances.length() + 256);
+        json.append("{\"batch\":{\"instances\":").append(results.size());
+        json.append(",\"solved\":").append(solved);
+        json.append(",\"wallSeconds\":");
+        SolveMetrics.appendNumber(json, wallSeconds);
+        json.append(",\"instancesPerSecond\":");
+        SolveMetrics.appendNumber(json, solved / wallSeconds);
+        json.append(",\"pointsPerSecond\":");
+        SolveMetrics.appendNumber(json, totalPoints / wallSeconds);
+        json.append("},\"instances\":[").append(instances).append("]}");
+        return json.toString();
+    }
+}
\ No newline at end of file
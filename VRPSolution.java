@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Result of one headless solve (see VRPSolver): the travel times that were used, the routes per
+// vehicle (depot first and last) and the CPM analysis of those routes, plus the SolveMetrics of the run (time per phase, counters).
+// Routes are checked against capacity, shift length and time windows; getViolations() lists what is broken.
+class VRPSolution {
+    private final List<VRPSolverVisualizer2.GeoPoint> geoPoints;
+    private final int depotIndex;
+    private final TravelTimeMatrix travelTimes;
+    private final List<List<Integer>> vehicleRoutes;
+    private final List<Vehicle> vehicles; // null = unlimited vehicles (time windows still apply)
+    private final CPMCalculator cpm;
+    private final SolveMetrics metrics;
+    private TravelTimeMatrix scheduled; // Created on first use by scheduledTravelTimes()
+
+    VRPSolution(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex, TravelTimeMatrix travelTimes,
+                List<List<Integer>> vehicleRoutes, List<Vehicle> vehicles, CPMCalculator cpm,
+                SolveMetrics metrics) {
+        this.geoPoints = geoPoints;
+        this.depotIndex = depotIndex;
+        this.travelTimes = travelTimes;
+        this.vehicleRoutes = vehicleRoutes;
+        this.vehicles = vehicles;
+        this.cpm = cpm;
+        this.metrics = metrics;
+    }
+
+    public List<VRPSolverVisualizer2.GeoPoint> getGeoPoints() { return geoPoints; }
+    public int getDepotIndex() { return depotIndex; }
+    public TravelTimeMatrix getTravelTimes() { return travelTimes; }
+    public List<List<Integer>> getVehicleRoutes() { return vehicleRoutes; }
+    public CPMCalculator getCpm() { return cpm; }
+
+    public Vehicle getVehicle(int vehicle) {
+        return vehicles == null ? Vehicle.UNLIMITED : vehicles.get(vehicle);
+    }
+
+    // Makespan: the CPM project duration (longest vehicle route including service times)
+    public double getProjectDuration() { return cpm.getProjectDuration(); }
+
+    public SolveMetrics getMetrics() { return metrics; }
+    public long getMatrixNanos() { return metrics.phaseNanos("matrix"); }
+    public long getRouteNanos() { return metrics.phaseNanos("routes"); }
+    public long getCpmNanos() { return metrics.phaseNanos("cpm.graph") + metrics.phaseNanos("cpm.calculate"); }
+
+    // Travel plus service time of one vehicle's route (service at the depot is not counted), each leg
+    // at its departure time when the travel times depend on the time of day
+    public double routeDuration(int vehicle) {
+        List<Integer> route = vehicleRoutes.get(vehicle);
+        double[] legs = TravelTimeMatrix.legTimes(travelTimes, route, geoPoints, depotIndex);
+        double total = 0;
+        for (int j = 0; j < route.size() - 1; j++) {
+            int next = route.get(j + 1);
+            total += legs[j];
+            if (next != depotIndex) {
+                total += geoPoints.get(next).serviceDuration;
+            }
+        }
+        return total;
+    }
+
+    // Sum of all travel times (without service), the objective the route solvers minimise
+    public double totalTravelTime() {
+        double total = 0;
+        for (List<Integer> route : vehicleRoutes) {
+            for (double leg : TravelTimeMatrix.legTimes(travelTimes, route, geoPoints, depotIndex)) {
+                total += leg;
+            }
+        }
+        return total;
+    }
+
+    // Violated constraints of one route, e.g. "Vehicle 2: capacity exceeded (load 130.00 > 100.00)"
+    public List<String> getViolations(int vehicle) {
+        RouteFeasibility feasibility = new RouteFeasibility(scheduledTravelTimes(), geoPoints, depotIndex, getVehicle(vehicle));
+        feasibility.load(vehicleRoutes.get(vehicle));
+        return feasibility.isFeasible() ? List.of() : feasibility.describeViolations("Vehicle " + (vehicle + 1));
+    }
+
+    // Time-dependent travel times fixed at each point's departure in these routes, so the feasibility
+    // summaries see the same leg times as the CPM; other stores are used as they are
+    private TravelTimeMatrix scheduledTravelTimes() {
+        if (scheduled == null) {
+            scheduled = travelTimes instanceof TimeDependentTravelTimes timeDependent
+                    ? timeDependent.atDepartures(timeDependent.departureTimes(vehicleRoutes, geoPoints, depotIndex))
+                    : travelTimes;
+        }
+        return scheduled;
+    }
+
+    public List<String> getViolations() {
+        List<String> violations = new ArrayList<>();
+        for (int v = 0; v < vehicleRoutes.size(); v++) {
+            violations.addAll(getViolations(v));
+        }
+        return violations;
+    }
+
+    // Print vehicle routes to console with total duration (streamed through ExportWriter)
+    public void printVehicleRoutes() {
+        try (ExportWriter out = ExportWriter.console()) {
+            out.text("--- Daftar Rute Kendaraan ---").newline();
+            for (int i = 0; i < vehicleRoutes.size(); i++) {
+                out.text("Vehicle ").number(i + 1).text(": ");
+                List<Integer> route = vehicleRoutes.get(i);
+                for (int j = 0; j < route.size(); j++) {
+                    out.text(geoPoints.get(route.get(j)).label);
+                    if (j < route.size() - 1) {
+                        out.text(" - ");
+                    }
+                }
+                out.text(" (Total Duration: ").fixed(routeDuration(i), 2).text(" minutes)").newline();
+                for (String violation : getViolations(i)) {
+                    out.text("  TIDAK LAYAK - ").text(violation).newline();
+                }
+            }
+            out.text("-----------------------------").newline();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
\ No newline at end of file
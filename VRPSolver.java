@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Headless VRP pipeline, no Swing involved: travel times -> routes -> CPM.
+// This is what VRPSolverVisualizer2 used to do in its constructor; the panel now only draws the result.
+// A VRPSolver can be shared between threads: every solve() creates its own RouteSolver, because the
+// solvers keep their working state in fields.
+// With a SpeedProfile the matrix is computed at AVERAGE_SPEED_KM_PER_HOUR as before and wrapped in
+// TimeDependentTravelTimes; the route solver runs through TimeDependentSolver, and the CPM, route
+// durations and feasibility reports take every leg at its departure time.
+class VRPSolver {
+    static final double AVERAGE_SPEED_KM_PER_HOUR = 20.0; // Kecepatan rata-rata asumsi
+
+    // Above this many points the full n x n matrix is replaced by the sparse k-nearest-neighbour store
+    static final int SPARSE_MATRIX_THRESHOLD = 5000;
+    static final int NEIGHBOR_COUNT = 20;
+
+    private final Supplier<RouteSolver> routeSolverFactory;
+    private final SpeedProfile speedProfile; // null = constant AVERAGE_SPEED_KM_PER_HOUR
+
+    public VRPSolver() {
+        this(LocalSearchSolver::new);
+    }
+
+    public VRPSolver(Supplier<RouteSolver> routeSolverFactory) {
+        this(routeSolverFactory, null);
+    }
+
+    public VRPSolver(Supplier<RouteSolver> routeSolverFactory, SpeedProfile speedProfile) {
+        this.routeSolverFactory = routeSolverFactory;
+        this.speedProfile = speedProfile;
+    }
+
+    // Point depotIndex is the depot, every other point is a customer
+    public VRPSolution solve(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex, int vehicleCount) {
+        return solve(geoPoints, depotIndex, vehicleCount, new SolveMetrics(geoPoints.size() + " points"));
+    }
+
+    // Same, recording phases and counters into the given metrics (e.g. named after the instance file)
+    public VRPSolution solve(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex, int vehicleCount,
+                             SolveMetrics metrics) {
+        TravelTimeMatrix travelTimes = metrics.time("matrix", () -> buildTravelTimes(geoPoints, depotIndex));
+        return solve(geoPoints, depotIndex, vehicleCount, null, travelTimes, metrics);
+    }
+
+    // One route per vehicle, route r driven by vehicles.get(r). The vehicles are passed to the RouteSolver:
+    // LocalSearchSolver and ParallelSearchSolver plan within capacity and shift length (ParallelSearchSolver
+    // also within time windows). The solution reports any route that still breaks a limit.
+    public VRPSolution solve(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex, List<Vehicle> vehicles) {
+        SolveMetrics metrics = new SolveMetrics(geoPoints.size() + " points");
+        TravelTimeMatrix travelTimes = metrics.time("matrix", () -> buildTravelTimes(geoPoints, depotIndex));
+        return solve(geoPoints, depotIndex, vehicles.size(), vehicles, travelTimes, metrics);
+    }
+
+    // Same, on travel times built by the caller (e.g. benchmark instances with their own distance convention)
+    public VRPSolution solve(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex, List<Vehicle> vehicles,
+                             TravelTimeMatrix travelTimes, SolveMetrics metrics) {
+        return solve(geoPoints, depotIndex, vehicles.size(), vehicles, travelTimes, metrics);
+    }
+
+    // Same, with the matrix memory-mapped from (or written to) a TravelTimeMatrixCache file (see loadTravelTimes)
+    public VRPSolution solve(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex, int vehicleCount,
+                             Path matrixCacheFile) throws IOException {
+        SolveMetrics metrics = new SolveMetrics(geoPoints.size() + " points");
+        TravelTimeMatrix travelTimes;
+        metrics.begin("matrix");
+        try {
+            travelTimes = loadTravelTimes(matrixCacheFile, geoPoints);
+        } finally {
+            metrics.end();
+        }
+        return solve(geoPoints, depotIndex, vehicleCount, null, travelTimes, metrics);
+    }
+
+    private VRPSolution solve(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex, int vehicleCount,
+                              List<Vehicle> vehicles, TravelTimeMatrix travelTimes, SolveMetrics metrics) {
+        TravelTimeMatrix times = speedProfile == null
+                ? travelTimes
+                : new TimeDependentTravelTimes(travelTimes, AVERAGE_SPEED_KM_PER_HOUR, speedProfile);
+        RouteSolver routeSolver = speedProfile == null
+                ? routeSolverFactory.get()
+                : new TimeDependentSolver(routeSolverFactory.get());
+        List<List<Integer>> routes = metrics.time("routes", () -> vehicles == null
+                ? routeSolver.solve(times, geoPoints, depotIndex, vehicleCount)
+                : routeSolver.solve(times, geoPoints, depotIndex, vehicles));
+
+        // Project_Start -> per vehicle: travel, service, travel, ... -> Project_End
+        CPMCalculator cpm = metrics.time("cpm.graph",
+                () -> new CPMCalculator(ActivityGraph.fromRoutes(routes, times, geoPoints, depotIndex)));
+        metrics.time("cpm.calculate", cpm::calculateCPM);
+
+        VRPSolution solution = new VRPSolution(geoPoints, depotIndex, times, routes, vehicles, cpm, metrics);
+        record(solution, routeSolver, metrics);
+        return solution;
+    }
+
+    private static void record(VRPSolution solution, RouteSolver routeSolver, SolveMetrics metrics) {
+        long moves = routeSolver.movesEvaluated();
+        long relaxations = solution.getCpm().getEdgeRelaxations();
+        int violations = solution.getViolations().size();
+        metrics.count("points", solution.getGeoPoints().size());
+        metrics.count("vehicles", solution.getVehicleRoutes().size());
+        metrics.count("solver.movesEvaluated", moves);
+        metrics.count("cpm.activities", solution.getCpm().getGraph().size);
+        metrics.count("cpm.edgeRelaxations", relaxations);
+        metrics.value("solver.movesPerSecond", perSecond(moves, metrics.phaseNanos("routes")));
+        metrics.value("cpm.relaxationsPerSecond", perSecond(relaxations, metrics.phaseNanos("cpm.calculate")));
+        metrics.value("makespan", solution.getProjectDuration());
+        metrics.value("totalTravelTime", solution.totalTravelTime());
+        metrics.count("violations", violations);
+
+        SolveMetrics.SolveEvent event = new SolveMetrics.SolveEvent();
+        if (event.shouldCommit()) {
+            event.instance = metrics.getInstance();
+            event.points = solution.getGeoPoints().size();
+            event.vehicles = solution.getVehicleRoutes().size();
+            event.movesEvaluated = moves;
+            event.cpmRelaxations = relaxations;
+            event.makespan = solution.getProjectDuration();
+            event.violations = violations;
+            event.commit();
+        }
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return nanos > 0 ? count * 1e9 / nanos : Double.NaN;
+    }
+
+    // In-memory travel times: full matrix for small instances, sparse k-nearest-neighbour store above
+    // SPARSE_MATRIX_THRESHOLD points
+    static TravelTimeMatrix buildTravelTimes(List<VRPSolverVisualizer2.GeoPoint> geoPoints, int depotIndex) {
+        if (geoPoints.size() > SPARSE_MATRIX_THRESHOLD) {
+            return new NeighborTravelTimes(geoPoints, depotIndex, NEIGHBOR_COUNT, AVERAGE_SPEED_KM_PER_HOUR);
+        }
+        return new TravelTimeMatrixBuilder(geoPoints, AVERAGE_SPEED_KM_PER_HOUR).build(TravelTimeMatrix.Storage.DOUBLE);
+    }
+
+    // Full matrix from a TravelTimeMatrixCache file; above SPARSE_MATRIX_THRESHOLD points it also carries the
+    // NEIGHBOR_COUNT nearest candidates, so the solvers stay granular as on the buildTravelTimes store
+    static TravelTimeMatrix loadTravelTimes(Path matrixCacheFile, List<VRPSolverVisualizer2.GeoPoint> geoPoints)
+            throws IOException {
+        TravelTimeMatrix matrix = TravelTimeMatrixCache.loadOrBuild(matrixCacheFile, geoPoints, AVERAGE_SPEED_KM_PER_HOUR);
+        if (geoPoints.size() > SPARSE_MATRIX_THRESHOLD) {
+            return new NeighborListMatrix(matrix, geoPoints, NEIGHBOR_COUNT);
+        }
+        return matrix;
+    }
+}
\ No newline at end of file
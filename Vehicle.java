@@ -0,0 +1,26 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Limits of one vehicle, checked by RouteFeasibility. A route's duration runs from leaving the depot to
+// returning there, waiting for time windows included.
+class Vehicle {
+    static final Vehicle UNLIMITED = new Vehicle(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    final double capacity;    // Maximum total GeoPoint.demand per route
+    final double shiftLength; // Maximum route duration in minutes (driver shift)
+
+    public Vehicle(double capacity, double shiftLength) {
+        this.capacity = capacity;
+        this.shiftLength = shiftLength;
+    }
+
+    // A fleet of count identical vehicles
+    public static List<Vehicle> fleet(int count, double capacity, double shiftLength) {
+        List<Vehicle> vehicles = new ArrayList<>(count);
+        Vehicle vehicle = new Vehicle(capacity, shiftLength);
+        for (int i = 0; i < count; i++) {
+            vehicles.add(vehicle);
+        }
+        return vehicles;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+// Benchmark workloads built from the solver classes, without going through the Swing constructor.
+// The solver lives in the default package, which JMH benchmark classes (and any named package) cannot
+// import, so this class sits in the default package too and hands out plain JDK functional interfaces.
+// vrp.bench.Fixtures looks them up once per trial; the measured call is a monomorphic interface call.
+public class BenchFixtures {
+    // Same area as the built-in Surabaya data
+    private static final double MIN_LAT = -7.40, MAX_LAT = -7.20, MIN_LON = 112.60, MAX_LON = 112.85;
+
+    public static List<VRPSolverVisualizer2.GeoPoint> randomPoints(int count, long seed) {
+        Random random = new Random(seed);
+        List<VRPSolverVisualizer2.GeoPoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double lat = MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT);
+            double lon = MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON);
+            points.add(new VRPSolverVisualizer2.GeoPoint(lat, lon, "P" + i, 5 + random.nextInt(20)));
+        }
+        return points;
+    }
+
+    // One call = haversineDistance from the next origin to every point; returns the sum of the row
+    public static DoubleSupplier haversineRow(int count, long seed) {
+        VRPSolverVisualizer2.GeoPoint[] points = randomPoints(count, seed).toArray(new VRPSolverVisualizer2.GeoPoint[0]);
+        return new DoubleSupplier() {
+            private int origin;
+
+            @Override
+            public double getAsDouble() {
+                VRPSolverVisualizer2.GeoPoint from = points[origin];
+                origin = origin + 1 == points.length ? 0 : origin + 1;
+                double sum = 0;
+                for (VRPSolverVisualizer2.GeoPoint to : points) {
+                    sum += VRPSolverVisualizer2.haversineDistance(from, to);
+                }
+                return sum;
+            }
+        };
+    }
+
+    // One call = a complete travel time matrix. "AUTO" is the solveVRP() rule (dense DOUBLE up to
+    // SPARSE_MATRIX_THRESHOLD points, k-nearest-neighbour store above); otherwise a TravelTimeMatrix.Storage name.
+    public static Supplier<Object> travelTimeMatrix(int count, String storage, long seed) {
+        List<VRPSolverVisualizer2.GeoPoint> points = randomPoints(count, seed);
+        if (storage.equals("AUTO")) {
+            return () -> VRPSolver.buildTravelTimes(points, 0);
+        }
+        if (storage.equals("SPARSE")) {
+            return () -> new NeighborTravelTimes(points, 0, VRPSolver.NEIGHBOR_COUNT,
+                                                 VRPSolver.AVERAGE_SPEED_KM_PER_HOUR);
+        }
+        TravelTimeMatrix.Storage layout = TravelTimeMatrix.Storage.valueOf(storage);
+        return () -> new TravelTimeMatrixBuilder(points, VRPSolver.AVERAGE_SPEED_KM_PER_HOUR).build(layout);
+    }
+
+    // One call = calculateCPM() on a synthetic activity network of the given size; returns the project duration.
+    // Activities are numbered in a random topological order; each gets 1..maxPredecessors predecessors
+    // drawn from the previous `window` activities, so the graph is a DAG with long and short paths mixed.
+    public static DoubleSupplier cpm(int activityCount, int maxPredecessors, int window, long seed) {
+        CPMCalculator calculator = new CPMCalculator(syntheticGraph(activityCount, maxPredecessors, window, seed));
+        return () -> {
+            calculator.calculateCPM();
+            return calculator.getProjectDuration();
+        };
+    }
+
+    // One call = MonteCarloCPM.run() of `scenarios` scenarios on the synthetic network above, every duration
+    // lognormal with cv 0.3 around its planned value; returns the P95 project duration
+    public static DoubleSupplier monteCarloCpm(int activityCount, int scenarios, long seed) {
+        MonteCarloCPM monteCarlo = MonteCarloCPM.forRoutes(syntheticGraph(activityCount, 3, 64, seed), 0.3, 0.3);
+        long[] run = {seed};
+        return () -> monteCarlo.run(scenarios, run[0]++).percentile(95);
+    }
+
+    // One call = build the graph analyzeCPM() uses for the given routes and run CPM on it
+    public static DoubleSupplier routeCpm(int count, int vehicleCount, long seed) {
+        List<VRPSolverVisualizer2.GeoPoint> points = randomPoints(count, seed);
+        TravelTimeMatrix travelTimes = VRPSolver.buildTravelTimes(points, 0);
+        List<List<Integer>> routes = new RoundRobinSolver().solve(travelTimes, points, 0, vehicleCount);
+        return () -> {
+            CPMCalculator calculator = new CPMCalculator(ActivityGraph.fromRoutes(routes, travelTimes, points, 0));
+            calculator.calculateCPM();
+            return calculator.getProjectDuration();
+        };
+    }
+
+    // One call = DynamicRoutePlanner.moveStop() of a random routed stop to a random location: row and column
+    // recomputation, removal, cheapest insertion over all routes and the bounded repair. The point count
+    // stays constant, so the call can be repeated indefinitely (addStop would grow the matrix every call).
+    public static DoubleSupplier dynamicMove(int count, int vehicleCount, long seed) {
+        List<VRPSolverVisualizer2.GeoPoint> points = randomPoints(count, seed);
+        VRPSolution solution = new VRPSolver().solve(points, 0, vehicleCount);
+        DynamicRoutePlanner planner = new DynamicRoutePlanner(solution);
+        Random random = new Random(seed + 1);
+        return () -> {
+            int stop = 1 + random.nextInt(count - 1);
+            double lat = MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT);
+            double lon = MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON);
+            planner.moveStop(stop, lat, lon);
+            return lat;
+        };
+    }
+
+    // One call = a full route solve of `count` points with a depot in the middle; regions = 1 is a single
+    // LocalSearchSolver, more regions use DecompositionSolver (sweep). Returns the total travel time.
+    public static DoubleSupplier decomposedSolve(int count, int vehicleCount, int regions, long seed) {
+        List<VRPSolverVisualizer2.GeoPoint> points = randomPoints(count, seed);
+        points.set(0, new VRPSolverVisualizer2.GeoPoint((MIN_LAT + MAX_LAT) / 2, (MIN_LON + MAX_LON) / 2, "Depot"));
+        TravelTimeMatrix travelTimes = VRPSolver.buildTravelTimes(points, 0);
+        return () -> {
+            RouteSolver solver = regions > 1
+                    ? new DecompositionSolver(LocalSearchSolver::new, DecompositionSolver.Partition.SWEEP, regions)
+                    : new LocalSearchSolver();
+            double total = 0;
+            for (List<Integer> route : solver.solve(travelTimes, points, 0, vehicleCount)) {
+                for (int j = 0; j < route.size() - 1; j++) {
+                    total += travelTimes.get(route.get(j), route.get(j + 1));
+                }
+            }
+            return total;
+        };
+    }
+
+    static ActivityGraph syntheticGraph(int activityCount, int maxPredecessors, int window, long seed) {
+        Random random = new Random(seed);
+        ActivityGraph.Builder b = new ActivityGraph.Builder();
+        int[] shuffled = new int[activityCount];
+        for (int i = 0; i < activityCount; i++) {
+            int j = random.nextInt(i + 1);
+            shuffled[i] = shuffled[j];
+            shuffled[j] = i;
+        }
+        int[] rowOf = new int[activityCount]; // Rows are added in shuffled order so CPM cannot rely on row order
+        for (int r = 0; r < activityCount; r++) {
+            rowOf[shuffled[r]] = b.add(ActivityGraph.TRAVEL, 0, shuffled[r], shuffled[r], 1 + random.nextInt(60));
+        }
+        for (int i = 1; i < activityCount; i++) {
+            int predecessors = 1 + random.nextInt(maxPredecessors);
+            for (int p = 0; p < predecessors; p++) {
+                int before = Math.max(0, i - 1 - random.nextInt(Math.min(i, window)));
+                b.addPrecedence(rowOf[before], rowOf[i]);
+            }
+        }
+        return b.build();
+    }
+}
\ No newline at end of file
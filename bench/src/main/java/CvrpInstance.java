@@ -0,0 +1,190 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// A standard benchmark instance, read from one of the two common file formats:
+// - CVRPLIB / TSPLIB (*.vrp: Augerat A/B/P, Christofides, Uchoa X): NODE_COORD_SECTION, DEMAND_SECTION,
+//   DEPOT_SECTION, EDGE_WEIGHT_TYPE EUC_2D. Distances are rounded to the nearest integer, as the published
+//   best-known values assume. The vehicle count is the k of the name (A-n32-k5) or a VEHICLES line, or
+//   otherwise the minimum for the total demand.
+// - Solomon / Gehring-Homberger VRPTW (*.txt): VEHICLE NUMBER/CAPACITY and one row per customer with
+//   coordinates, demand, ready time, due date and service time; customer 0 is the depot. Distances are
+//   unrounded Euclidean, and the depot's due date is the shift length.
+// Travel time = distance (unit speed), so the solver's total travel time is the instance's objective.
+// The coordinates go into GeoPoint.lon (x) and lat (y) only for drawing; nothing reads them as degrees.
+class CvrpInstance {
+    final String name;
+    final List<VRPSolverVisualizer2.GeoPoint> geoPoints; // Depot first
+    final List<Vehicle> vehicles;
+    final TravelTimeMatrix travelTimes;
+
+    private CvrpInstance(String name, List<VRPSolverVisualizer2.GeoPoint> geoPoints, List<Vehicle> vehicles,
+                         boolean roundDistances) {
+        this.name = name;
+        this.geoPoints = geoPoints;
+        this.vehicles = vehicles;
+        this.travelTimes = euclidean(geoPoints, roundDistances);
+    }
+
+    public static CvrpInstance load(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        List<String> lines;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            lines = reader.lines().toList();
+        }
+        try {
+            return fileName.endsWith(".vrp") ? cvrplib(fileName, lines) : solomon(fileName, lines);
+        } catch (RuntimeException e) {
+            throw new IOException(fileName + ": " + e.getMessage(), e);
+        }
+    }
+
+    public int customerCount() {
+        return geoPoints.size() - 1;
+    }
+
+    private static CvrpInstance cvrplib(String fileName, List<String> lines) {
+        String name = fileName.substring(0, fileName.length() - ".vrp".length());
+        int dimension = -1, vehicleCount = -1;
+        double capacity = -1;
+        double[] x = null, y = null, demand = null;
+        int depot = 0;
+        String section = "";
+        for (String raw : lines) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.equals("EOF")) continue;
+            int colon = line.indexOf(':');
+            if (colon > 0 && Character.isLetter(line.charAt(0))) {
+                String key = line.substring(0, colon).trim(), value = line.substring(colon + 1).trim();
+                switch (key) {
+                    case "NAME" -> name = value;
+                    case "DIMENSION" -> dimension = Integer.parseInt(value);
+                    case "CAPACITY" -> capacity = Double.parseDouble(value);
+                    case "VEHICLES" -> vehicleCount = Integer.parseInt(value);
+                    case "EDGE_WEIGHT_TYPE" -> {
+                        if (!value.equals("EUC_2D")) throw new IllegalArgumentException("only EUC_2D is supported, not " + value);
+                    }
+                    default -> { }
+                }
+                continue;
+            }
+            if (Character.isLetter(line.charAt(0))) {
+                section = line;
+                if (dimension > 0 && x == null) {
+                    x = new double[dimension];
+                    y = new double[dimension];
+                    demand = new double[dimension];
+                }
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            switch (section) {
+                case "NODE_COORD_SECTION" -> {
+                    int node = Integer.parseInt(fields[0]) - 1;
+                    x[node] = Double.parseDouble(fields[1]);
+                    y[node] = Double.parseDouble(fields[2]);
+                }
+                case "DEMAND_SECTION" -> demand[Integer.parseInt(fields[0]) - 1] = Double.parseDouble(fields[1]);
+                case "DEPOT_SECTION" -> {
+                    int node = Integer.parseInt(fields[0]);
+                    if (node > 0) depot = node - 1;
+                }
+                default -> throw new IllegalArgumentException("data outside a known section: " + line);
+            }
+        }
+        if (x == null || capacity <= 0) throw new IllegalArgumentException("DIMENSION, CAPACITY or NODE_COORD_SECTION missing");
+
+        double totalDemand = 0;
+        List<VRPSolverVisualizer2.GeoPoint> points = new ArrayList<>(dimension);
+        points.add(new VRPSolverVisualizer2.GeoPoint(y[depot], x[depot], "Depot"));
+        for (int i = 0; i < dimension; i++) {
+            if (i == depot) continue;
+            points.add(new VRPSolverVisualizer2.GeoPoint(y[i], x[i], Integer.toString(i + 1), 0, demand[i], 0,
+                    Double.POSITIVE_INFINITY));
+            totalDemand += demand[i];
+        }
+        if (vehicleCount < 0) vehicleCount = vehiclesFromName(name);
+        if (vehicleCount < 0) vehicleCount = (int) Math.ceil(totalDemand / capacity);
+        return new CvrpInstance(name, points, Vehicle.fleet(vehicleCount, capacity, Double.POSITIVE_INFINITY), true);
+    }
+
+    // "A-n32-k5" -> 5, -1 when the name has no k part
+    private static int vehiclesFromName(String name) {
+        for (String part : name.split("-")) {
+            if (part.length() > 1 && part.charAt(0) == 'k' && part.chars().skip(1).allMatch(Character::isDigit)) {
+                return Integer.parseInt(part.substring(1));
+            }
+        }
+        return -1;
+    }
+
+    private static CvrpInstance solomon(String fileName, List<String> lines) {
+        String name = null;
+        int vehicleCount = -1;
+        double capacity = -1;
+        List<double[]> rows = new ArrayList<>();
+        for (int k = 0; k < lines.size(); k++) {
+            String line = lines.get(k).trim();
+            if (line.isEmpty()) continue;
+            if (name == null) {
+                name = line;
+            } else if (line.startsWith("NUMBER")) {
+                String[] fields = nextDataLine(lines, k).trim().split("\\s+");
+                vehicleCount = Integer.parseInt(fields[0]);
+                capacity = Double.parseDouble(fields[1]);
+            } else if (Character.isDigit(line.charAt(0)) && vehicleCount > 0) {
+                String[] fields = line.split("\\s+");
+                if (fields.length < 7) continue; // The NUMBER/CAPACITY row itself
+                double[] row = new double[7];
+                for (int f = 0; f < 7; f++) {
+                    row[f] = Double.parseDouble(fields[f]);
+                }
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty() || vehicleCount <= 0) throw new IllegalArgumentException("VEHICLE or CUSTOMER section missing");
+
+        // Columns: number, x, y, demand, ready time, due date, service time
+        List<VRPSolverVisualizer2.GeoPoint> points = new ArrayList<>(rows.size());
+        for (double[] row : rows) {
+            points.add(new VRPSolverVisualizer2.GeoPoint(row[2], row[1], row[0] == 0 ? "Depot" : Long.toString((long) row[0]),
+                    row[6], row[3], row[4], row[5]));
+        }
+        double shiftLength = rows.get(0)[5];
+        return new CvrpInstance(name, points, Vehicle.fleet(vehicleCount, capacity, shiftLength), false);
+    }
+
+    private static String nextDataLine(List<String> lines, int k) {
+        for (int j = k + 1; j < lines.size(); j++) {
+            if (!lines.get(j).isBlank()) return lines.get(j);
+        }
+        throw new IllegalArgumentException("no data after " + lines.get(k).trim());
+    }
+
+    private static TravelTimeMatrix euclidean(List<VRPSolverVisualizer2.GeoPoint> points, boolean round) {
+        int n = points.size();
+        double[] data = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double dx = points.get(i).lon - points.get(j).lon, dy = points.get(i).lat - points.get(j).lat;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                data[i * n + j] = round ? Math.floor(distance + 0.5) : distance; // TSPLIB nint
+            }
+        }
+        return new TravelTimeMatrix() {
+            @Override
+            public int size() {
+                return n;
+            }
+
+            @Override
+            public double get(int i, int j) {
+                return data[i * n + j];
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,288 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// End-to-end quality/speed benchmark: every instance file (CvrpInstance: *.vrp CVRPLIB, *.txt Solomon) in a
+// directory goes through the full VRPSolver pipeline (ParallelSearchSolver with the instance's fleet, a fixed
+// seed and a time budget, then the CPM analysis), and the result is compared with the best-known cost from
+// best-known.csv in the same directory (instance,cost,source).
+// Per instance: cost (total travel = the instance's distance objective), gap to best known, time until the
+// search first held a feasible solution within 5% / 1% of it (polled every POLL_MILLIS), solve and CPM time,
+// makespan, violations and peak heap (all heap pools, peaks reset before the instance).
+// The table goes to the console and, with --csv, to a CSV file; --baseline <csv> compares against an earlier
+// run and exits with 1 when an instance lost feasibility or its gap grew by more than --tolerance points.
+// The seed fixes the random choices, but the search follows the wall clock (annealing temperature, budget),
+// so repeated runs still differ a little, more so with several workers: compare gaps with a tolerance.
+//
+// Usage: java -cp bench/target/benchmarks.jar SolverQualityBenchmark [instance-dir] [options]
+//   --budget <ms> (default 10000)  --workers <n> (default 1)  --seed <n> (default 42)
+//   --csv <file>  --baseline <csv>  --tolerance <gap points> (default 0.5)
+public class SolverQualityBenchmark {
+    static final String BEST_KNOWN_FILE = "best-known.csv";
+    static final double[] TARGET_GAPS = {5, 1}; // Percent above best known
+    private static final long POLL_MILLIS = 5;
+    private static final String[] COLUMNS = {"instance", "customers", "vehiclesUsed", "bestKnown", "cost", "gapPct",
+            "ms5Pct", "ms1Pct", "solveMs", "cpmMs", "makespan", "violations", "peakHeapMb"};
+
+    private final long budgetMillis;
+    private final int workers;
+    private final long seed;
+
+    SolverQualityBenchmark(long budgetMillis, int workers, long seed) {
+        this.budgetMillis = budgetMillis;
+        this.workers = workers;
+        this.seed = seed;
+    }
+
+    // One table row
+    static class Row {
+        String instance;
+        int customers, vehiclesUsed, vehicles, violations;
+        double bestKnown = Double.NaN, cost, makespan, solveMillis, cpmMillis, peakHeapMb;
+        double[] millisToTarget = new double[TARGET_GAPS.length]; // NaN = not reached
+
+        double gapPercent() {
+            return Double.isNaN(bestKnown) ? Double.NaN : 100 * (cost - bestKnown) / bestKnown;
+        }
+    }
+
+    public Row run(CvrpInstance instance, double bestKnown) {
+        Row row = new Row();
+        row.instance = instance.name;
+        row.customers = instance.customerCount();
+        row.vehicles = instance.vehicles.size();
+        row.bestKnown = bestKnown;
+        Arrays.fill(row.millisToTarget, Double.NaN);
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = heapPools();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        ParallelSearchSolver search = new ParallelSearchSolver(budgetMillis, workers, 0, seed, instance.vehicles);
+        // Polls the running search so the time to reach each target is known, not just the final cost
+        RouteSolver traced = new RouteSolver() {
+            @Override
+            public List<List<Integer>> solve(TravelTimeMatrix travelTimes, List<VRPSolverVisualizer2.GeoPoint> geoPoints,
+                                             int depotIndex, int vehicleCount) {
+                long start = System.nanoTime();
+                ParallelSearchSolver.Search running = search.start(travelTimes, geoPoints, depotIndex, vehicleCount);
+                List<List<Integer>> seen = null;
+                while (!running.isDone()) {
+                    List<List<Integer>> routes = running.getBestRoutes();
+                    if (routes != null && !routes.equals(seen)) {
+                        seen = routes;
+                        recordTargets(row, instance, routes, (System.nanoTime() - start) / 1e6);
+                    }
+                    try {
+                        Thread.sleep(POLL_MILLIS);
+                    } catch (InterruptedException e) {
+                        running.stop();
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                List<List<Integer>> routes = running.await();
+                recordTargets(row, instance, routes, (System.nanoTime() - start) / 1e6);
+                return routes;
+            }
+
+            @Override
+            public long movesEvaluated() {
+                return search.movesEvaluated();
+            }
+        };
+
+        SolveMetrics metrics = new SolveMetrics(instance.name);
+        VRPSolution solution = new VRPSolver(() -> traced)
+                .solve(instance.geoPoints, 0, instance.vehicles, instance.travelTimes, metrics);
+
+        row.cost = solution.totalTravelTime();
+        row.makespan = solution.getProjectDuration();
+        row.violations = solution.getViolations().size();
+        for (List<Integer> route : solution.getVehicleRoutes()) {
+            if (route.size() > 2) row.vehiclesUsed++;
+        }
+        row.solveMillis = metrics.phaseNanos("routes") / 1e6;
+        row.cpmMillis = (metrics.phaseNanos("cpm.graph") + metrics.phaseNanos("cpm.calculate")) / 1e6;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        row.peakHeapMb = peak / (1024.0 * 1024.0);
+        return row;
+    }
+
+    // Marks the targets that a feasible solution of this cost reaches at `millis`
+    private static void recordTargets(Row row, CvrpInstance instance, List<List<Integer>> routes, double millis) {
+        if (Double.isNaN(row.bestKnown)) return;
+        double cost = 0;
+        for (int r = 0; r < routes.size(); r++) {
+            List<Integer> route = routes.get(r);
+            RouteFeasibility feasibility = new RouteFeasibility(instance.travelTimes, instance.geoPoints, 0,
+                    instance.vehicles.get(r));
+            feasibility.load(route);
+            if (!feasibility.isFeasible()) return;
+            for (int j = 0; j < route.size() - 1; j++) {
+                cost += instance.travelTimes.get(route.get(j), route.get(j + 1));
+            }
+        }
+        for (int t = 0; t < TARGET_GAPS.length; t++) {
+            if (Double.isNaN(row.millisToTarget[t]) && cost <= row.bestKnown * (1 + TARGET_GAPS[t] / 100) + 1e-9) {
+                row.millisToTarget[t] = millis;
+            }
+        }
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) pools.add(pool);
+        }
+        return pools;
+    }
+
+    static List<Path> listInstances(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{vrp,txt}")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    // instance,cost[,source]; lines starting with # are comments
+    static Map<String, Double> readBestKnown(Path file) throws IOException {
+        Map<String, Double> bestKnown = new HashMap<>();
+        if (!Files.exists(file)) return bestKnown;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("instance,")) continue;
+            String[] fields = line.split(",");
+            bestKnown.put(fields[0].trim(), Double.parseDouble(fields[1].trim()));
+        }
+        return bestKnown;
+    }
+
+    // Fixed-width table; the same columns as the CSV
+    static void printTable(ExportWriter out, List<Row> rows) throws IOException {
+        out.padRight("Instance", 24).text(" | Cust | Veh   |   Best known |         Cost |  Gap % |   t 5% ms |   t 1% ms")
+                .text(" |  Solve ms | CPM ms |   Makespan | Viol | Peak MB").newline();
+        out.text("-------------------------+------+-------+--------------+--------------+--------+-----------+-----------")
+                .text("+-----------+--------+------------+------+--------").newline();
+        for (Row row : rows) {
+            out.padRight(row.instance, 24).text(" | ");
+            padNumber(out, row.customers, 4).text(" | ");
+            padNumber(out, row.vehiclesUsed, 2).ch('/');
+            padNumber(out, row.vehicles, 2).text(" | ");
+            out.fixed(row.bestKnown, 2, 12).text(" | ").fixed(row.cost, 2, 12).text(" | ");
+            out.fixed(row.gapPercent(), 2, 6).text(" | ");
+            out.fixed(row.millisToTarget[0], 0, 9).text(" | ").fixed(row.millisToTarget[1], 0, 9).text(" | ");
+            out.fixed(row.solveMillis, 0, 9).text(" | ").fixed(row.cpmMillis, 2, 6).text(" | ");
+            out.fixed(row.makespan, 2, 10).text(" | ");
+            padNumber(out, row.violations, 4).text(" | ").fixed(row.peakHeapMb, 1, 7).newline();
+        }
+    }
+
+    private static ExportWriter padNumber(ExportWriter out, long value, int width) throws IOException {
+        return out.spaces(width - Long.toString(value).length()).number(value);
+    }
+
+    static void writeCsv(ExportWriter out, List<Row> rows) throws IOException {
+        out.text(String.join(",", COLUMNS)).newline();
+        for (Row row : rows) {
+            out.csv(row.instance).ch(',').number(row.customers).ch(',').number(row.vehiclesUsed).ch(',');
+            out.fixed(row.bestKnown, 2).ch(',').fixed(row.cost, 2).ch(',').fixed(row.gapPercent(), 3).ch(',');
+            out.fixed(row.millisToTarget[0], 0).ch(',').fixed(row.millisToTarget[1], 0).ch(',');
+            out.fixed(row.solveMillis, 0).ch(',').fixed(row.cpmMillis, 3).ch(',').fixed(row.makespan, 2).ch(',');
+            out.number(row.violations).ch(',').fixed(row.peakHeapMb, 1).newline();
+        }
+    }
+
+    // Prints the change per instance against an earlier --csv file; true when something regressed
+    static boolean compare(ExportWriter out, List<Row> rows, Path baselineFile, double tolerance) throws IOException {
+        Map<String, String[]> baseline = new HashMap<>();
+        List<String> lines = Files.readAllLines(baselineFile, StandardCharsets.UTF_8);
+        List<String> header = List.of(lines.get(0).split(","));
+        int gapColumn = header.indexOf("gapPct"), violationColumn = header.indexOf("violations");
+        int timeColumn = header.indexOf("ms1Pct");
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            baseline.put(fields[0], fields);
+        }
+        boolean regressed = false;
+        out.newline().text("--- Against ").text(baselineFile.toString()).text(" (tolerance ")
+                .fixed(tolerance, 2).text(" gap points) ---").newline();
+        for (Row row : rows) {
+            String[] before = baseline.get(row.instance);
+            out.padRight(row.instance, 24).text(" | ");
+            if (before == null) {
+                out.text("new").newline();
+                continue;
+            }
+            double gapBefore = Double.parseDouble(before[gapColumn]);
+            boolean lostFeasibility = Integer.parseInt(before[violationColumn]) == 0 && row.violations > 0;
+            boolean worse = row.gapPercent() - gapBefore > tolerance || lostFeasibility;
+            regressed |= worse;
+            out.text("gap ").fixed(gapBefore, 2).text(" -> ").fixed(row.gapPercent(), 2);
+            out.text(" | t 1% ").text(before[timeColumn]).text(" -> ").fixed(row.millisToTarget[1], 0).text(" ms");
+            out.text(worse ? (lostFeasibility ? " | REGRESSION (infeasible)" : " | REGRESSION") : " | ok").newline();
+        }
+        return regressed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get("bench/instances");
+        long budget = 10_000, seed = 42;
+        int workers = 1;
+        double tolerance = 0.5;
+        Path csvFile = null, baselineFile = null;
+        for (int a = 0; a < args.length; a++) {
+            switch (args[a]) {
+                case "--budget" -> budget = Long.parseLong(args[++a]);
+                case "--workers" -> workers = Integer.parseInt(args[++a]);
+                case "--seed" -> seed = Long.parseLong(args[++a]);
+                case "--csv" -> csvFile = Paths.get(args[++a]);
+                case "--baseline" -> baselineFile = Paths.get(args[++a]);
+                case "--tolerance" -> tolerance = Double.parseDouble(args[++a]);
+                default -> directory = Paths.get(args[a]);
+            }
+        }
+
+        Map<String, Double> bestKnown = readBestKnown(directory.resolve(BEST_KNOWN_FILE));
+        SolverQualityBenchmark benchmark = new SolverQualityBenchmark(budget, workers, seed);
+        List<Row> rows = new ArrayList<>();
+        boolean regressed = false;
+        try (ExportWriter out = ExportWriter.console()) {
+            out.text("--- Solver quality: budget ").number(budget).text(" ms, ").number(workers)
+                    .text(" worker(s), seed ").number(seed).text(" ---").newline();
+            for (Path file : listInstances(directory)) {
+                CvrpInstance instance = CvrpInstance.load(file);
+                rows.add(benchmark.run(instance, bestKnown.getOrDefault(instance.name, Double.NaN)));
+            }
+            printTable(out, rows);
+            if (csvFile != null) {
+                try (ExportWriter csv = ExportWriter.open(csvFile)) {
+                    writeCsv(csv, rows);
+                }
+            }
+            if (baselineFile != null) {
+                regressed = compare(out, rows, baselineFile, tolerance);
+            }
+        }
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,461 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Behavioural smoke checks for the solver pipeline, quick enough to run before every push.
+// Each check prints "ok" or "FAIL" with the reason; the exit code is 1 when any check failed.
+// - routes: every solver/construction returns one route per vehicle, each starting and ending at the
+//   depot, and visits every customer exactly once (dense matrix and sparse k-nearest-neighbour store)
+// - cached matrix: above the sparse threshold, a solve on the TravelTimeMatrixCache file keeps granular
+//   candidate lists (NeighborLists) and returns valid routes
+// - balance: the default pipeline does not give one vehicle most of the work; its CPM project duration
+//   stays below round-robin's (the plan the construction + local search replaced)
+// - fleet: given vehicles whose capacity is 10% above the average load, the default pipeline returns
+//   routes that break no vehicle limit (dense and sparse)
+// - route feasibility: on random routes with time windows, demands and a vehicle, the O(1)
+//   RouteFeasibility.insertionViolation and removalViolation equal the violation of the edited route
+//   loaded from scratch, for feasible and infeasible edits
+// - incremental cpm: IncrementalCPM after random inserts, removals and retimings gives the same chain
+//   durations, project duration and what-if makespans as summing the chains from scratch; and after
+//   random relocations between routes, the same ES/EF/LS/LF/slack per activity and the same critical
+//   chains as CPMCalculator on the edited routes
+// - dynamic time-dependent: DynamicRoutePlanner on a plan solved with a SpeedProfile, after adding and
+//   moving stops, keeps every customer routed once and its snapshot takes each leg at its departure time,
+//   new and moved stops included (the same total travel time as the profile on a freshly built matrix)
+// - export numbers: ExportWriter.fixed, with and without a field width, prints exactly what String.format
+//   prints for 300,000 values: random magnitudes and signs, rounding ties such as 2.675, -0.0, tiny
+//   negatives, NaN and infinities, 0-9 decimals
+// - large: a sparse solve above 65,536 points (pairs of point indices no longer fit in 32 bits), about
+//   20 s; --quick skips it
+//
+// Usage: java -cp bench/target/benchmarks.jar SolverSmokeCheck [--quick]
+public class SolverSmokeCheck {
+    private int failures;
+
+    private void report(String check, String problem) {
+        System.out.println((problem == null ? "ok   " : "FAIL ") + check + (problem == null ? "" : ": " + problem));
+        if (problem != null) failures++;
+    }
+
+    // null when the routes are a valid plan for the points, otherwise the first problem found
+    static String validate(List<List<Integer>> routes, int pointCount, int depot, int vehicleCount) {
+        if (routes.size() != vehicleCount) return routes.size() + " routes for " + vehicleCount + " vehicles";
+        int[] visits = new int[pointCount];
+        for (int v = 0; v < routes.size(); v++) {
+            List<Integer> route = routes.get(v);
+            if (route.size() < 2 || route.get(0) != depot || route.get(route.size() - 1) != depot) {
+                return "route " + (v + 1) + " does not start and end at the depot";
+            }
+            for (int j = 1; j < route.size() - 1; j++) {
+                int point = route.get(j);
+                if (point == depot) return "route " + (v + 1) + " visits the depot in between";
+                visits[point]++;
+            }
+        }
+        for (int c = 0; c < pointCount; c++) {
+            if (c != depot && visits[c] != 1) return "customer " + c + " visited " + visits[c] + " times";
+        }
+        return null;
+    }
+
+    void routes() {
+        for (int n : new int[] {1000, VRPSolver.SPARSE_MATRIX_THRESHOLD + 1000}) {
+            List<VRPSolverVisualizer2.GeoPoint> points = BenchFixtures.randomPoints(n, 7);
+            TravelTimeMatrix travelTimes = VRPSolver.buildTravelTimes(points, 0);
+            for (LocalSearchSolver.Construction construction : LocalSearchSolver.Construction.values()) {
+                List<List<Integer>> routes = new LocalSearchSolver(construction).solve(travelTimes, points, 0, 12);
+                report("routes " + construction + " n=" + n, validate(routes, n, 0, 12));
+            }
+        }
+    }
+
+    void cachedMatrix() {
+        int n = VRPSolver.SPARSE_MATRIX_THRESHOLD + 1000;
+        List<VRPSolverVisualizer2.GeoPoint> points = BenchFixtures.randomPoints(n, 9);
+        String problem;
+        Path file = null;
+        try {
+            file = Files.createTempFile("smoke-matrix", ".ttm");
+            VRPSolution solution = new VRPSolver().solve(points, 0, 12, file);
+            problem = validate(solution.getVehicleRoutes(), n, 0, 12);
+            if (problem == null && !(solution.getTravelTimes() instanceof NeighborLists)) {
+                problem = "no candidate lists on the cached matrix";
+            }
+        } catch (IOException | RuntimeException e) {
+            problem = e.toString();
+        } finally {
+            try {
+                if (file != null) Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.out.println("could not delete " + file + ": " + e);
+            }
+        }
+        report("cached matrix n=" + n, problem);
+    }
+
+    void balance() {
+        balance("balance sample", VRPSolverVisualizer2.SAMPLE_GEO_POINTS, VRPSolverVisualizer2.VEHICLE_COUNT);
+        balance("balance n=1000", BenchFixtures.randomPoints(1000, 1), 10);
+    }
+
+    private void balance(String check, List<VRPSolverVisualizer2.GeoPoint> points, int vehicleCount) {
+        VRPSolution solution = new VRPSolver().solve(points, 0, vehicleCount);
+        VRPSolution roundRobin = new VRPSolver(RoundRobinSolver::new).solve(points, 0, vehicleCount);
+        List<Integer> sizes = new ArrayList<>();
+        for (List<Integer> route : solution.getVehicleRoutes()) {
+            sizes.add(route.size() - 2);
+        }
+        String problem = validate(solution.getVehicleRoutes(), points.size(), 0, vehicleCount);
+        if (problem == null && solution.getProjectDuration() > roundRobin.getProjectDuration()) {
+            problem = "project duration " + solution.getProjectDuration() + " > round-robin "
+                    + roundRobin.getProjectDuration() + ", customers per vehicle " + sizes;
+        }
+        report(check, problem);
+    }
+
+    void fleet() {
+        for (int n : new int[] {1000, VRPSolver.SPARSE_MATRIX_THRESHOLD + 1000}) {
+            List<VRPSolverVisualizer2.GeoPoint> points = BenchFixtures.randomPoints(n, 11);
+            double totalDemand = 0;
+            for (int i = 1; i < n; i++) {
+                points.get(i).demand = 1 + i % 10;
+                totalDemand += points.get(i).demand;
+            }
+            int vehicleCount = 20;
+            List<Vehicle> vehicles = Vehicle.fleet(vehicleCount, totalDemand / vehicleCount * 1.1, Double.POSITIVE_INFINITY);
+            VRPSolution solution = new VRPSolver().solve(points, 0, vehicles);
+            String problem = validate(solution.getVehicleRoutes(), n, 0, vehicleCount);
+            if (problem == null && !solution.getViolations().isEmpty()) {
+                problem = solution.getViolations().size() + " violations, first: " + solution.getViolations().get(0);
+            }
+            report("fleet n=" + n, problem);
+        }
+    }
+
+    void routeFeasibility() {
+        int n = 60;
+        List<VRPSolverVisualizer2.GeoPoint> points = BenchFixtures.randomPoints(n, 19);
+        SplittableRandom random = new SplittableRandom(20);
+        for (int i = 1; i < n; i++) {
+            VRPSolverVisualizer2.GeoPoint point = points.get(i);
+            point.demand = 1 + random.nextInt(10);
+            if (random.nextInt(4) > 0) {
+                point.readyTime = random.nextInt(300);
+                point.dueTime = point.readyTime + 30 + random.nextInt(120);
+            }
+        }
+        TravelTimeMatrix travelTimes = VRPSolver.buildTravelTimes(points, 0);
+        RouteFeasibility feasibility = new RouteFeasibility(travelTimes, points, 0, new Vehicle(40, 400));
+        RouteFeasibility edited = new RouteFeasibility(travelTimes, points, 0, new Vehicle(40, 400));
+        int[] customers = new int[n - 1];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = i + 1;
+        }
+        String problem = null;
+        int feasibleEdits = 0, infeasibleEdits = 0;
+        for (int trial = 0; trial < 2000 && problem == null; trial++) {
+            for (int i = customers.length - 1; i > 0; i--) { // Shuffle: the route is a prefix, c comes after it
+                int j = random.nextInt(i + 1), t = customers[i];
+                customers[i] = customers[j];
+                customers[j] = t;
+            }
+            int count = 1 + random.nextInt(12), c = customers[count];
+            feasibility.load(customers, count);
+
+            int gap = random.nextInt(count + 1);
+            int[] route = new int[count + 1];
+            System.arraycopy(customers, 0, route, 0, gap);
+            route[gap] = c;
+            System.arraycopy(customers, gap, route, gap + 1, count - gap);
+            edited.load(route, count + 1);
+            double expected = edited.violation(), actual = feasibility.insertionViolation(c, gap);
+            if (!close(actual, expected)) {
+                problem = "insert " + c + " at " + gap + " of " + Arrays.toString(Arrays.copyOf(customers, count))
+                        + ": violation " + actual + ", reloaded " + expected;
+                break;
+            }
+            if (expected > 0) infeasibleEdits++; else feasibleEdits++;
+
+            int p = random.nextInt(count);
+            route = new int[count - 1];
+            System.arraycopy(customers, 0, route, 0, p);
+            System.arraycopy(customers, p + 1, route, p, count - p - 1);
+            edited.load(route, count - 1);
+            expected = edited.violation();
+            actual = feasibility.removalViolation(p + 1);
+            if (!close(actual, expected)) {
+                problem = "remove position " + p + " of " + Arrays.toString(Arrays.copyOf(customers, count))
+                        + ": violation " + actual + ", reloaded " + expected;
+            }
+            if (expected > 0) infeasibleEdits++; else feasibleEdits++;
+        }
+        if (problem == null && (feasibleEdits < 100 || infeasibleEdits < 100)) {
+            problem = feasibleEdits + " feasible and " + infeasibleEdits + " infeasible edits, too few of one kind";
+        }
+        report("route feasibility", problem);
+    }
+
+    void incrementalCpm() {
+        int chains = 6;
+        IncrementalCPM cpm = new IncrementalCPM(chains);
+        List<List<Double>> expected = new ArrayList<>();
+        for (int v = 0; v < chains; v++) {
+            expected.add(new ArrayList<>());
+        }
+        SplittableRandom random = new SplittableRandom(5);
+        String problem = null;
+        for (int step = 0; step < 200_000 && problem == null; step++) {
+            int v = random.nextInt(chains);
+            List<Double> chain = expected.get(v);
+            int op = random.nextInt(3);
+            double d = random.nextInt(100);
+            if (op == 0 || chain.isEmpty()) {
+                int pos = random.nextInt(chain.size() + 1);
+                cpm.insert(v, pos, d);
+                chain.add(pos, d);
+            } else if (op == 1) {
+                int pos = random.nextInt(chain.size());
+                cpm.remove(v, pos);
+                chain.remove(pos);
+            } else {
+                int pos = random.nextInt(chain.size());
+                cpm.setDuration(v, pos, d);
+                chain.set(pos, d);
+            }
+            if (random.nextInt(4) > 0) continue; // Several updates between queries, as in a move
+            double[] sums = new double[chains];
+            double project = 0;
+            for (int c = 0; c < chains; c++) {
+                for (double x : expected.get(c)) {
+                    sums[c] += x;
+                }
+                project = Math.max(project, sums[c]);
+            }
+            int a = random.nextInt(chains), b = (a + 1 + random.nextInt(chains - 1)) % chains;
+            double withA = 0, withAB = 0;
+            for (int c = 0; c < chains; c++) {
+                withA = Math.max(withA, c == a ? 50 : sums[c]);
+                withAB = Math.max(withAB, c == a || c == b ? 50 : sums[c]);
+            }
+            if (cpm.getProjectDuration() != project) {
+                problem = "step " + step + ": project duration " + cpm.getProjectDuration() + ", expected " + project;
+            } else if (cpm.chainDuration(a) != sums[a]) {
+                problem = "step " + step + ": chain " + a + " " + cpm.chainDuration(a) + ", expected " + sums[a];
+            } else if (cpm.projectDurationWith(a, 50) != withA || cpm.projectDurationWith(a, 50, b, 50) != withAB) {
+                problem = "step " + step + ": what-if makespan of chains " + a + ", " + b;
+            }
+        }
+        report("incremental cpm", problem);
+        report("incremental cpm vs CPMCalculator", incrementalCpmVsCalculator());
+    }
+
+    private static String incrementalCpmVsCalculator() {
+        SplittableRandom random = new SplittableRandom(17);
+        List<VRPSolverVisualizer2.GeoPoint> points = BenchFixtures.randomPoints(30, 17);
+        for (int i = 1; i < points.size(); i++) {
+            points.get(i).serviceDuration = random.nextInt(2); // Some customers without a service activity
+        }
+        // 1-2 whole minutes per leg, so that several routes often tie for the longest
+        TravelTimeMatrix travelTimes = new TravelTimeMatrix() {
+            @Override
+            public int size() {
+                return points.size();
+            }
+
+            @Override
+            public double get(int i, int j) {
+                return i == j ? 0 : 1 + (i + j) % 2;
+            }
+        };
+        int vehicleCount = 6;
+        int ties = 0; // Steps where more chains tie than IncrementalCPM keeps in its top list
+        List<List<Integer>> routes = new RoundRobinSolver().solve(travelTimes, points, 0, vehicleCount);
+        IncrementalCPM cpm = IncrementalCPM.fromRoutes(routes, travelTimes, points, 0);
+        for (int step = 0; step < 2000; step++) {
+            // Relocate a random customer, every other step from the largest to the smallest route so the
+            // routes stay level; then bring both chains up to date as a solver would
+            int from = random.nextInt(vehicleCount), to = random.nextInt(vehicleCount);
+            if (step % 2 == 0) {
+                for (int v = 0; v < vehicleCount; v++) {
+                    if (routes.get(v).size() > routes.get(from).size()) from = v;
+                    if (routes.get(v).size() < routes.get(to).size()) to = v;
+                }
+            }
+            if (routes.get(from).size() > 2) {
+                double[] beforeFrom = IncrementalCPM.activityDurations(routes.get(from), travelTimes, points, 0);
+                double[] beforeTo = IncrementalCPM.activityDurations(routes.get(to), travelTimes, points, 0);
+                int c = routes.get(from).remove(1 + random.nextInt(routes.get(from).size() - 2));
+                routes.get(to).add(1 + random.nextInt(routes.get(to).size() - 1), c);
+                update(cpm, from, beforeFrom, IncrementalCPM.activityDurations(routes.get(from), travelTimes, points, 0));
+                if (to != from) {
+                    update(cpm, to, beforeTo, IncrementalCPM.activityDurations(routes.get(to), travelTimes, points, 0));
+                }
+            }
+            if (step % 5 != 1) continue;
+            CPMCalculator calculator = new CPMCalculator(ActivityGraph.fromRoutes(routes, travelTimes, points, 0));
+            calculator.calculateCPM();
+            ActivityGraph g = calculator.getGraph();
+            if (!close(cpm.getProjectDuration(), calculator.getProjectDuration())) {
+                return "step " + step + ": project duration " + cpm.getProjectDuration() + ", CPMCalculator "
+                        + calculator.getProjectDuration();
+            }
+            int[] position = new int[vehicleCount];
+            List<Integer> critical = new ArrayList<>();
+            for (int i = 0; i < g.size; i++) {
+                if (g.kind(i) != ActivityGraph.TRAVEL && g.kind(i) != ActivityGraph.SERVICE) continue;
+                int v = g.vehicle(i), p = position[v]++;
+                if (!close(cpm.getEarlyStart(v, p), g.earlyStart[i]) || !close(cpm.getEarlyFinish(v, p), g.earlyFinish[i])
+                        || !close(cpm.getLateStart(v, p), g.lateStart[i]) || !close(cpm.getLateFinish(v, p), g.lateFinish[i])
+                        || !close(cpm.getSlack(v), g.slack[i])) {
+                    return "step " + step + ": " + g.name(i) + " ES/EF/LS/LF/slack " + cpm.getEarlyStart(v, p) + "/"
+                            + cpm.getEarlyFinish(v, p) + "/" + cpm.getLateStart(v, p) + "/" + cpm.getLateFinish(v, p)
+                            + "/" + cpm.getSlack(v) + ", CPMCalculator " + g.earlyStart[i] + "/" + g.earlyFinish[i]
+                            + "/" + g.lateStart[i] + "/" + g.lateFinish[i] + "/" + g.slack[i];
+                }
+            }
+            for (int v = 0; v < vehicleCount; v++) {
+                if (position[v] != cpm.chainSize(v)) {
+                    return "step " + step + ": chain " + v + " has " + cpm.chainSize(v) + " activities, expected " + position[v];
+                }
+            }
+            for (int i : calculator.getCriticalPathIds()) {
+                if (g.vehicle(i) >= 0 && !critical.contains(g.vehicle(i))) critical.add(g.vehicle(i));
+            }
+            critical.sort(null);
+            if (!critical.equals(cpm.getCriticalChains())) {
+                return "step " + step + ": critical chains " + cpm.getCriticalChains() + ", CPMCalculator " + critical;
+            }
+            if (critical.size() > 3) ties++;
+        }
+        return ties == 0 ? "no step with more than three critical chains, the tie handling went untested" : null;
+    }
+
+    // Takes chain v from the activity durations `before` to `after`: activities are inserted or removed at
+    // the first difference and the rest is retimed
+    private static void update(IncrementalCPM cpm, int v, double[] before, double[] after) {
+        int p = 0;
+        while (p < Math.min(before.length, after.length) && before[p] == after[p]) p++;
+        for (int k = before.length; k > after.length; k--) {
+            cpm.remove(v, p);
+        }
+        for (int k = before.length; k < after.length; k++) {
+            cpm.insert(v, p, 0);
+        }
+        for (int q = p; q < after.length; q++) {
+            cpm.setDuration(v, q, after[q]);
+        }
+    }
+
+    private static boolean close(double a, double b) {
+        return Math.abs(a - b) <= 1e-6 * Math.max(1, Math.abs(b));
+    }
+
+    void dynamicTimeDependent() {
+        int n = 300, vehicleCount = 8;
+        SpeedProfile profile = SpeedProfile.surabaya(7 * 60);
+        VRPSolution solution = new VRPSolver(LocalSearchSolver::new, profile).solve(BenchFixtures.randomPoints(n, 15), 0, vehicleCount);
+        DynamicRoutePlanner planner = new DynamicRoutePlanner(solution);
+        SplittableRandom random = new SplittableRandom(16);
+        for (VRPSolverVisualizer2.GeoPoint stop : BenchFixtures.randomPoints(40, 17).subList(1, 40)) {
+            planner.addStop(stop);
+            VRPSolverVisualizer2.GeoPoint moved = BenchFixtures.randomPoints(1, random.nextLong()).get(0);
+            planner.moveStop(1 + random.nextInt(planner.getPointCount() - 1), moved.lat, moved.lon);
+        }
+        VRPSolution snapshot = planner.getSnapshot();
+        List<VRPSolverVisualizer2.GeoPoint> points = snapshot.getGeoPoints();
+        String problem = validate(snapshot.getVehicleRoutes(), points.size(), 0, vehicleCount);
+        if (problem == null && !(snapshot.getTravelTimes() instanceof TimeDependentTravelTimes)) {
+            problem = "snapshot travel times do not depend on the time of day";
+        }
+        if (problem == null) {
+            TravelTimeMatrix fresh = new TimeDependentTravelTimes(VRPSolver.buildTravelTimes(points, 0),
+                                                                  VRPSolver.AVERAGE_SPEED_KM_PER_HOUR, profile);
+            double expected = 0;
+            for (List<Integer> route : snapshot.getVehicleRoutes()) {
+                for (double leg : TravelTimeMatrix.legTimes(fresh, route, points, 0)) {
+                    expected += leg;
+                }
+            }
+            if (!close(snapshot.totalTravelTime(), expected)) {
+                problem = "total travel time " + snapshot.totalTravelTime() + ", expected " + expected;
+            }
+        }
+        report("dynamic time-dependent", problem);
+    }
+
+    void exportNumbers() {
+        SplittableRandom random = new SplittableRandom(13);
+        int samples = 300_000;
+        double[] values = new double[samples];
+        int[] decimals = new int[samples];
+        for (int k = 0; k < samples; k++) {
+            decimals[k] = random.nextInt(10);
+            values[k] = switch (k % 6) {
+                case 0 -> random.nextDouble() * Math.pow(10, random.nextInt(-4, 13)); // Any magnitude
+                case 1 -> -random.nextDouble() * Math.pow(10, random.nextInt(-4, 7));
+                // Ties in decimal: x.5 in the last printed digit, e.g. 2.675 with 2 decimals
+                case 2 -> (random.nextInt(2_000_000) * 2 + 1) / 2.0 / Math.pow(10, Math.min(decimals[k], 6));
+                case 3 -> random.nextInt(-100_000, 100_000); // Whole minutes
+                case 4 -> -random.nextDouble() * 1e-3;         // Rounds to -0.00..
+                default -> new double[] {0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                        Double.MAX_VALUE, Double.MIN_VALUE, 0.5, 1.005, 2.675, 999_999_999.995}[random.nextInt(11)];
+            };
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        String problem = null;
+        try (ExportWriter out = ExportWriter.to(Channels.newChannel(bytes))) {
+            for (int k = 0; k < samples; k++) {
+                out.fixed(values[k], decimals[k]).ch(' ').fixed(values[k], decimals[k], 14).newline();
+            }
+        } catch (IOException e) {
+            problem = e.toString();
+        }
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+        for (int k = 0; k < samples && problem == null; k++) {
+            String expected = String.format(Locale.ROOT, "%." + decimals[k] + "f %14." + decimals[k] + "f", values[k], values[k]);
+            if (k >= lines.length || !lines[k].equals(expected)) {
+                problem = "fixed(" + values[k] + ", " + decimals[k] + ") printed \"" + (k < lines.length ? lines[k] : "")
+                        + "\", String.format \"" + expected + "\"";
+            }
+        }
+        report("export numbers", problem);
+    }
+
+    void large() {
+        int n = 70_000;
+        List<VRPSolverVisualizer2.GeoPoint> points = BenchFixtures.randomPoints(n, 3);
+        String problem;
+        try {
+            problem = validate(new VRPSolver().solve(points, 0, 50).getVehicleRoutes(), n, 0, 50);
+        } catch (RuntimeException e) {
+            problem = e.toString();
+        }
+        report("large n=" + n, problem);
+    }
+
+    public static void main(String[] args) {
+        boolean quick = args.length > 0 && args[0].equals("--quick");
+        SolverSmokeCheck checks = new SolverSmokeCheck();
+        checks.routes();
+        checks.cachedMatrix();
+        checks.balance();
+        checks.fleet();
+        checks.routeFeasibility();
+        checks.incrementalCpm();
+        checks.dynamicTimeDependent();
+        checks.exportNumbers();
+        if (!quick) checks.large();
+        System.out.println(checks.failures == 0 ? "All checks passed" : checks.failures + " check(s) failed");
+        if (checks.failures > 0) {
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package vrp.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// CPMCalculator.calculateCPM(): one operation = the full topological sort, forward and backward pass.
+// synthetic: random DAG of `activities` activities, up to 3 predecessors each from the previous 64.
+// routes:    the analyzeCPM() network for `activities` points split over 50 vehicles, graph build included.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CpmBenchmark {
+    @Param({"25", "1000", "10000", "50000"})
+    public int activities;
+
+    private DoubleSupplier synthetic;
+    private DoubleSupplier routes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        synthetic = Fixtures.get("cpm", activities, 3, 64, 42L);
+        routes = Fixtures.get("routeCpm", activities, Math.min(50, activities - 1), 42L);
+    }
+
+    @Benchmark
+    public double synthetic() {
+        return synthetic.getAsDouble();
+    }
+
+    @Benchmark
+    public double routes() {
+        return routes.getAsDouble();
+    }
+}
\ No newline at end of file
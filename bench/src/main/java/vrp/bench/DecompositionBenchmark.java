@@ -0,0 +1,34 @@
+package vrp.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// Route solve time of `stops` points over 100 vehicles: regions = 1 is the undecomposed LocalSearchSolver,
+// more regions use DecompositionSolver. Run with -jvmArgs -XX:ActiveProcessorCount=N to see the scaling
+// with core count (regions are solved on the common ForkJoinPool).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class DecompositionBenchmark {
+    @Param({"20000", "50000"})
+    public int stops;
+
+    @Param({"1", "4", "8", "16"})
+    public int regions;
+
+    private DoubleSupplier solve;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        solve = Fixtures.get("decomposedSolve", stops, 100, regions, 42L);
+    }
+
+    @Benchmark
+    public double solve() {
+        return solve.getAsDouble();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package vrp.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// DynamicRoutePlanner event latency: one operation = moving one stop of a solved plan with `stops`
+// points over 10 vehicles. SampleTime reports the latency distribution (p50, p99, p99.9).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DynamicPlannerBenchmark {
+    @Param({"500", "1000", "3000"})
+    public int stops;
+
+    private DoubleSupplier move;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        move = Fixtures.get("dynamicMove", stops, 10, 42L);
+    }
+
+    @Benchmark
+    public double move() {
+        return move.getAsDouble();
+    }
+}
\ No newline at end of file
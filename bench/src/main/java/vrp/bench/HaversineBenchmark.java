@@ -0,0 +1,29 @@
+package vrp.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// VRPSolverVisualizer2.haversineDistance: one operation = the distances from one point to all points
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HaversineBenchmark {
+    @Param({"25", "1000", "10000", "50000"})
+    public int points;
+
+    private DoubleSupplier row;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        row = Fixtures.get("haversineRow", points, 42L);
+    }
+
+    @Benchmark
+    public double distanceRow() {
+        return row.getAsDouble();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package vrp.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// MonteCarloCPM.run(): one operation = `scenarios` sampled scenarios on a synthetic DAG of `activities`
+// activities (as in CpmBenchmark), sampling, both passes, criticality counts and the percentile sort.
+// Scenarios per second = scenarios * ops/s.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonteCarloCpmBenchmark {
+    @Param({"1000", "10000"})
+    public int activities;
+
+    @Param({"10000"})
+    public int scenarios;
+
+    private DoubleSupplier run;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        run = Fixtures.get("monteCarloCpm", activities, scenarios, 42L);
+    }
+
+    @Benchmark
+    public double run() {
+        return run.getAsDouble();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package vrp.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Travel time matrix construction (solveVRP() step 2): one operation = one complete matrix.
+// storage=AUTO follows solveVRP(); DOUBLE, FLOAT, FLOAT_TRIANGLE and SPARSE force a layout, e.g.
+//   -p storage=FLOAT_TRIANGLE -p points=25,1000,10000
+// (a dense layout for 50000 points does not fit in a Java array and fails the trial).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TravelTimeMatrixBenchmark {
+    @Param({"25", "1000", "10000", "50000"})
+    public int points;
+
+    @Param({"AUTO"})
+    public String storage;
+
+    private Supplier<Object> matrix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        matrix = Fixtures.get("travelTimeMatrix", points, storage, 42L);
+    }
+
+    @Benchmark
+    public void build(Blackhole blackhole) {
+        blackhole.consume(matrix.get());
+    }
+}
\ No newline at end of file